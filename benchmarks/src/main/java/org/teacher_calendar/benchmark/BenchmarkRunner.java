@@ -0,0 +1,42 @@
+package org.teacher_calendar.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запуск всех бенчмарков модуля: пропускная способность (ops/s) и выделенная память
+ * на операцию (gc.alloc.rate.norm, байт/оп) через GC-профайлер.
+ *
+ * Сборка и запуск:
+ *   mvn -pl benchmarks -am package
+ *   java -jar benchmarks/target/benchmarks.jar [опции JMH, например DateTimeParser -p input=...]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        // Без явного фильтра запускаем все бенчмарки модуля
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include("org\\.teacher_calendar\\.benchmark\\..*");
+        }
+
+        Options options = builder
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
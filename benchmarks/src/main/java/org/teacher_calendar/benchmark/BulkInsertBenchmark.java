@@ -0,0 +1,132 @@
+package org.teacher_calendar.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Создание --lessons уроков (по умолчанию 10 000) двумя способами на живом сервере:
+ * по одному POST /api/lessons подряд и одним POST /api/lessons/bulk. Уроки идут по часу
+ * без пересечений, каждый способ - в своём году, чтобы не упираться в проверку конфликтов.
+ *
+ *   java -jar server/target/server-1.0-SNAPSHOT.jar --spring.jpa.show-sql=false
+ *   java -cp benchmarks/target/benchmarks.jar org.teacher_calendar.benchmark.BulkInsertBenchmark --lessons 10000
+ *
+ * Повторный запуск на той же базе нужно сдвинуть: --year 2060.
+ */
+public class BulkInsertBenchmark {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        int lessons = Integer.parseInt(options.getOrDefault("lessons", "10000"));
+        int year = Integer.parseInt(options.getOrDefault("year", "2050"));
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = login(http, baseUrl,
+                options.getOrDefault("user", "tutor"),
+                options.getOrDefault("password", "password123"));
+        int clientId = firstClientId(http, baseUrl, token);
+
+        System.out.printf("%d lessons, client %d%n", lessons, clientId);
+
+        // По одному: каждый урок - отдельный запрос и отдельная транзакция
+        LocalDateTime singleStart = LocalDateTime.of(year, 1, 1, 0, 0);
+        long started = System.nanoTime();
+        for (int i = 0; i < lessons; i++) {
+            String body = mapper.writeValueAsString(lesson(singleStart.plusHours(i), clientId));
+            send(http, baseUrl + "/api/lessons", token, body);
+        }
+        report("single", lessons, System.nanoTime() - started);
+
+        // Пачкой: один запрос, одна транзакция, JDBC-батчи
+        LocalDateTime bulkStart = LocalDateTime.of(year + 5, 1, 1, 0, 0);
+        List<Map<String, Object>> batch = new ArrayList<>(lessons);
+        for (int i = 0; i < lessons; i++) {
+            batch.add(lesson(bulkStart.plusHours(i), clientId));
+        }
+        String body = mapper.writeValueAsString(batch);
+        started = System.nanoTime();
+        send(http, baseUrl + "/api/lessons/bulk", token, body);
+        report("bulk", lessons, System.nanoTime() - started);
+    }
+
+    private static Map<String, Object> lesson(LocalDateTime start, int clientId) {
+        Map<String, Object> lesson = new HashMap<>();
+        lesson.put("dateTime", start.toString());
+        lesson.put("durationMinutes", 60);
+        lesson.put("client", Map.of("id", clientId));
+        return lesson;
+    }
+
+    private static void send(HttpClient http, String url, String token, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(5))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " failed: HTTP " + response.statusCode());
+        }
+    }
+
+    private static void report(String mode, int lessons, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-6s %.2f s, %.0f lessons/s%n", mode, seconds, lessons / seconds);
+    }
+
+    private static int firstClientId(HttpClient http, String baseUrl, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/clients"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        JsonNode clients = mapper.readTree(http.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        if (!clients.isArray() || clients.isEmpty()) {
+            throw new IllegalStateException("The tutor has no clients");
+        }
+        return clients.get(0).get("id").asInt();
+    }
+
+    private static String login(HttpClient http, String baseUrl, String username, String password) throws Exception {
+        String body = mapper.writeValueAsString(Map.of("username", username, "password", password));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: HTTP " + response.statusCode());
+        }
+        return mapper.readTree(response.body()).get("token").asText();
+    }
+
+    // --key value
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
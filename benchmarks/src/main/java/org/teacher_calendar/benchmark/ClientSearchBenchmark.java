@@ -0,0 +1,133 @@
+package org.teacher_calendar.benchmark;
+
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.entity.Client;
+import org.teacher_calendar.entity.User;
+import org.teacher_calendar.repository.ClientRepository;
+import org.teacher_calendar.service.ClientSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подсказки клиентов (ClientSearchIndex.search, limit 20) по 50 000 клиентам одного репетитора.
+ *
+ * skewed - 15 фамилий на всех: частые триграммы дают списки по 20k+ кандидатов (худший случай);
+ * diverse - фамилии и имена из слогов, как у реальной базы учеников.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar ClientSearch
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClientSearchBenchmark {
+
+    private static final int CLIENTS = 50_000;
+    private static final int USER_ID = 1;
+
+    private static final String[] SURNAMES = {
+            "Иванов", "Петров", "Смирнов", "Кузнецов", "Попов", "Васильев", "Соколов", "Михайлов",
+            "Новиков", "Фёдоров", "Морозов", "Волков", "Алексеев", "Лебедев", "Семёнов"};
+    private static final String[] NAMES = {
+            "Алексей", "Мария", "Иван", "Анна", "Дмитрий", "Елена", "Сергей", "Ольга", "Антон", "Ирина"};
+    private static final String[] CITIES = {
+            "Москва", "Санкт-Петербург", "Екатеринбург", "Казань", "Новосибирск", "Самара", "Пермь", "Омск"};
+    private static final String[] SYLLABLES = {
+            "ба", "ве", "го", "да", "ер", "жи", "зо", "ка", "ли", "мо", "ну", "пе", "ра", "си", "ту",
+            "фа", "хо", "це", "ша", "юр", "ян", "ко", "ло", "ми", "ни", "ор", "ст", "вл", "др", "гр"};
+
+    @Param({"skewed", "diverse"})
+    public String data;
+
+    @Param({
+            "ив",          // короткий префикс имени
+            "иванов",      // имя с начала
+            "казань",      // только город
+            "нов ан",      // подстрока и короткий термин
+            "916"          // телефон
+    })
+    public String query;
+
+    private ClientSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        List<Client> clients = "skewed".equals(data) ? skewed() : diverse();
+        ClientRepository repository = (ClientRepository) Proxy.newProxyInstance(
+                ClientRepository.class.getClassLoader(), new Class<?>[]{ClientRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByUserId")) {
+                        return clients;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        index = new ClientSearchIndex(repository, 1);
+        // Индекс строится при первом поиске
+        index.search(USER_ID, "а", 1);
+    }
+
+    @Benchmark
+    public List<ClientDto> search() {
+        return index.search(USER_ID, query, 20);
+    }
+
+    private static List<Client> skewed() {
+        Random random = new Random(42);
+        List<Client> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            String name = SURNAMES[random.nextInt(SURNAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)];
+            clients.add(client(i + 1, name, random));
+        }
+        return clients;
+    }
+
+    private static List<Client> diverse() {
+        Random random = new Random(42);
+        List<Client> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            String surname = capitalize(word(random, 2 + random.nextInt(2)) + (random.nextBoolean() ? "ов" : "ин"));
+            String name = random.nextInt(5) == 0 ? NAMES[random.nextInt(NAMES.length)] : capitalize(word(random, 2));
+            clients.add(client(i + 1, surname + " " + name, random));
+        }
+        return clients;
+    }
+
+    private static Client client(int id, String name, Random random) {
+        User user = LessonFixtures.user();
+        Client client = new Client(name, String.format("+7 9%02d %03d-%02d-%02d",
+                random.nextInt(100), random.nextInt(1000), random.nextInt(100), random.nextInt(100)), "Europe/Moscow");
+        client.setId(id);
+        client.setCity(CITIES[random.nextInt(CITIES.length)]);
+        client.setUser(user);
+        return client;
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
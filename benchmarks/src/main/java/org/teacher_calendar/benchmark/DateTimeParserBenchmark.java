@@ -0,0 +1,65 @@
+package org.teacher_calendar.benchmark;
+
+import org.teacher_calendar.util.DateTimeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор и форматирование дат: все три формата, которые заявляет DateTimeParser.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTimeParserBenchmark {
+
+    @Param({
+            "2025-12-07T17:30:00",       // без зоны (так отдаёт сервер)
+            "2025-12-07T17:30:00.782Z",  // миллисекунды и UTC (так шлёт фронтенд, toISOString)
+            "2025-12-07T17:30:00+03:00"  // со смещением
+    })
+    public String input;
+
+    private LocalDateTime dateTime;
+
+    @Setup
+    public void setUp() {
+        dateTime = LocalDateTime.of(2025, 12, 7, 17, 30);
+    }
+
+    @Benchmark
+    public LocalDateTime parse() {
+        return DateTimeParser.parseIsoToLocalDateTime(input);
+    }
+
+    // Прежняя реализация через DateTimeFormatter.ISO_DATE_TIME - точка отсчёта для быстрого пути
+    @Benchmark
+    public LocalDateTime parseWithFormatter() {
+        if (input.endsWith("Z") || input.contains("+") ||
+                (input.contains("-") && input.lastIndexOf('-') > 10)) {
+            return OffsetDateTime.parse(input, DateTimeFormatter.ISO_DATE_TIME).toLocalDateTime();
+        }
+        return LocalDateTime.parse(input, DateTimeFormatter.ISO_DATE_TIME);
+    }
+
+    @Benchmark
+    public String format() {
+        return DateTimeParser.formatLocalDateTime(dateTime);
+    }
+}
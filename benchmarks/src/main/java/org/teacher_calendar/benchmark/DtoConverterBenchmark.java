@@ -0,0 +1,58 @@
+package org.teacher_calendar.benchmark;
+
+import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.entity.Client;
+import org.teacher_calendar.entity.Lesson;
+import org.teacher_calendar.entity.User;
+import org.teacher_calendar.util.DtoConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование урока сущность <-> DTO при типичном числе меток на уроке.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DtoConverterBenchmark {
+
+    // 0 - урок без меток, 3 - обычный урок, 10 - "обвешанный" урок
+    @Param({"0", "3", "10"})
+    public int labelCount;
+
+    private Lesson lesson;
+    private LessonDto lessonDto;
+    private Client client;
+
+    @Setup
+    public void setUp() {
+        User user = LessonFixtures.user();
+        client = LessonFixtures.client(user, 1);
+        lesson = LessonFixtures.lesson(1, client, LessonFixtures.labels(user, labelCount));
+        lessonDto = DtoConverter.toDto(lesson);
+    }
+
+    @Benchmark
+    public LessonDto toDto() {
+        return DtoConverter.toDto(lesson);
+    }
+
+    @Benchmark
+    public Lesson toEntity() {
+        return DtoConverter.toEntity(lessonDto, client);
+    }
+}
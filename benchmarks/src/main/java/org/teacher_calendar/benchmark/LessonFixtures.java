@@ -0,0 +1,75 @@
+package org.teacher_calendar.benchmark;
+
+import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.entity.Client;
+import org.teacher_calendar.entity.Label;
+import org.teacher_calendar.entity.Lesson;
+import org.teacher_calendar.entity.User;
+import org.teacher_calendar.util.DtoConverter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тестовые данные для бенчмарков: уроки в том виде, в каком их отдаёт
+ * и принимает сервер (клиент, метки, часовые пояса, описание).
+ */
+final class LessonFixtures {
+
+    private LessonFixtures() {}
+
+    static User user() {
+        User user = new User("tutor", "secret", "Europe/Moscow");
+        user.setId(1);
+        return user;
+    }
+
+    static Client client(User user, int id) {
+        Client client = new Client("Ученик " + id, "+7 900 000-00-" + String.format("%02d", id % 100), "Asia/Yekaterinburg");
+        client.setId(id);
+        client.setCity("Екатеринбург");
+        client.setDescription("Подготовка к ЕГЭ по математике");
+        client.setLessonPrice(1500.0);
+        client.setUser(user);
+        return client;
+    }
+
+    static List<Label> labels(User user, int count) {
+        String[] colors = {"#ff6b6b", "#4ecdc4", "#ffe66d", "#1a535c", "#ff9f1c"};
+        List<Label> labels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Label label = new Label("Метка " + i, colors[i % colors.length], user);
+            label.setId(i + 1);
+            label.setEmoji("📚");
+            labels.add(label);
+        }
+        return labels;
+    }
+
+    static Lesson lesson(int id, Client client, List<Label> labels) {
+        LocalDateTime start = LocalDateTime.of(2025, 12, 7, 17, 30).plusHours(id);
+        Lesson lesson = new Lesson(start, client, "Разбор домашнего задания, тема " + id, id % 3 == 0);
+        lesson.setId(id);
+        lesson.setDurationMinutes(60);
+        lesson.setEndTime(start.plusMinutes(60));
+        lesson.setRequiresPreparation(id % 2 == 0);
+        lesson.setHomeworkSent(false);
+        lesson.setIsTrial(false);
+        lesson.setTutorTimezone("Europe/Moscow");
+        lesson.setClientTimezone(client.getTimezone());
+        lesson.setUser(client.getUser());
+        lesson.setLabels(new ArrayList<>(labels));
+        return lesson;
+    }
+
+    static List<LessonDto> lessonDtos(int count, int labelCount) {
+        User user = user();
+        List<Label> labels = labels(user, labelCount);
+        List<LessonDto> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dtos.add(DtoConverter.toDto(lesson(i + 1, client(user, i % 20 + 1), labels)));
+        }
+        return dtos;
+    }
+}
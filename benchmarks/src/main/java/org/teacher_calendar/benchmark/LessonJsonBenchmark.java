@@ -0,0 +1,71 @@
+package org.teacher_calendar.benchmark;
+
+import org.teacher_calendar.dto.LessonDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков LessonDto в JSON, как в ответах /api/lessons,
+ * и разбор запроса на создание урока в том виде, как его шлёт фронтенд.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LessonJsonBenchmark {
+
+    // 1 - ответ на создание урока, 40 - загруженная неделя, 500 - страница истории
+    @Param({"1", "40", "500"})
+    public int lessonCount;
+
+    @Param({"3"})
+    public int labelCount;
+
+    private List<LessonDto> lessons;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] request;
+
+    @Setup
+    public void setUp() {
+        lessons = LessonFixtures.lessonDtos(lessonCount, labelCount);
+        ObjectMapper objectMapper = new ObjectMapper();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, LessonDto.class));
+        reader = objectMapper.readerFor(LessonDto.class);
+        // Даты в формате toISOString()
+        request = ("{\"dateTime\":\"2025-12-07T17:30:00.782Z\",\"endTime\":\"2025-12-07T18:30:00.782Z\","
+                + "\"durationMinutes\":60,\"description\":\"Разбор домашнего задания\",\"isPaid\":false,"
+                + "\"client\":{\"id\":1},\"labelIds\":[1,2,3]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(lessons);
+    }
+
+    @Benchmark
+    public LessonDto deserialize() throws IOException {
+        return reader.readValue(request);
+    }
+}
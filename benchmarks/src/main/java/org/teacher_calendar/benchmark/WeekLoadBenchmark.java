@@ -0,0 +1,256 @@
+package org.teacher_calendar.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный тест GET /api/lessons/week: N одновременных клиентов (замкнутый цикл:
+ * следующий запрос клиента уходит сразу после ответа на предыдущий), результат -
+ * пропускная способность и перцентили задержки. Не JMH: меряется живой сервер целиком,
+ * поэтому сравниваются два запуска сервера с одинаковыми флагами, кроме режима потоков.
+ *
+ *   java -jar server/target/server-1.0-SNAPSHOT.jar --spring.jpa.show-sql=false
+ *   java -jar server/target/server-1.0-SNAPSHOT.jar --spring.jpa.show-sql=false --spring.profiles.active=vthreads
+ *
+ *   java -cp benchmarks/target/benchmarks.jar org.teacher_calendar.benchmark.WeekLoadBenchmark \
+ *       --clients 1000 --warmup 15 --duration 60
+ *
+ * Недели выбираются случайно из --weeks подряд идущих; по умолчанию их больше, чем
+ * lessons.week-cache.max-entries, чтобы заметная доля запросов доходила до БД.
+ * Перед замером каждая из этих недель заполняется --lessons-per-week уроками
+ * (по умолчанию 20: пн-сб по 3-4 урока, клиенты и метки репетитора по кругу) через
+ * POST /api/lessons/bulk; если первая неделя уже заполнена, заполнение пропускается.
+ * Закрепление виртуальных потоков (pinning) можно увидеть, запустив сервер
+ * с -Djdk.tracePinnedThreads=short.
+ */
+public class WeekLoadBenchmark {
+
+    // Понедельник; заранее после уроков из DataInitializer, чтобы заполнение не давало конфликтов
+    private static final LocalDate FIRST_WEEK = LocalDate.of(2040, 1, 2);
+    private static final int SEED_CHUNK = 5_000;
+    private static final int MAX_LESSONS_PER_WEEK = 42; // 6 дней по 7 уроков через час
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int weeks = Integer.parseInt(options.getOrDefault("weeks", "2000"));
+        int lessonsPerWeek = Integer.parseInt(options.getOrDefault("lessons-per-week", "20"));
+        if (lessonsPerWeek < 0 || lessonsPerWeek > MAX_LESSONS_PER_WEEK) {
+            throw new IllegalArgumentException("--lessons-per-week must be 0.." + MAX_LESSONS_PER_WEEK);
+        }
+
+        // Клиенты на виртуальных потоках, чтобы сам генератор нагрузки не упирался в потоки ОС
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        String token = login(http, baseUrl,
+                options.getOrDefault("user", "tutor"),
+                options.getOrDefault("password", "password123"));
+
+        seed(http, baseUrl, token, weeks, lessonsPerWeek);
+
+        System.out.printf("GET %s/api/lessons/week, clients=%d, weeks=%d, lessons/week=%d%n",
+                baseUrl, clients, weeks, lessonsPerWeek);
+        run(http, baseUrl, token, clients, weeks, Duration.ofSeconds(warmupSeconds)).print("warmup");
+        run(http, baseUrl, token, clients, weeks, Duration.ofSeconds(durationSeconds)).print("measured");
+    }
+
+    private static Result run(HttpClient http, String baseUrl, String token,
+                              int clients, int weeks, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        LongAdder errors = new LongAdder();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                executor.submit(() -> {
+                    long[] own = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        LocalDate week = FIRST_WEEK.plusWeeks(ThreadLocalRandom.current().nextInt(weeks));
+                        HttpRequest request = HttpRequest.newBuilder(
+                                        URI.create(baseUrl + "/api/lessons/week?weekStart=" + week))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(60))
+                                .GET()
+                                .build();
+
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                            continue;
+                        }
+
+                        if (count == own.length) {
+                            own = Arrays.copyOf(own, count * 2);
+                        }
+                        own[count++] = System.nanoTime() - start;
+                    }
+                    latencies[client] = own;
+                    counts[client] = count;
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.sum(), elapsed);
+    }
+
+    private static void seed(HttpClient http, String baseUrl, String token,
+                             int weeks, int lessonsPerWeek) throws Exception {
+        if (lessonsPerWeek == 0) {
+            return;
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode firstWeek = mapper.readTree(get(http, baseUrl + "/api/lessons/week?weekStart=" + FIRST_WEEK, token));
+        if (firstWeek.size() >= lessonsPerWeek) {
+            System.out.printf("seed     skipped: week %s already has %d lessons%n", FIRST_WEEK, firstWeek.size());
+            return;
+        }
+
+        List<Integer> clientIds = new ArrayList<>();
+        mapper.readTree(get(http, baseUrl + "/api/clients", token)).forEach(c -> clientIds.add(c.get("id").asInt()));
+        List<Integer> labelIds = new ArrayList<>();
+        mapper.readTree(get(http, baseUrl + "/api/settings/labels", token)).forEach(l -> labelIds.add(l.get("id").asInt()));
+        if (clientIds.isEmpty()) {
+            throw new IllegalStateException("Tutor has no clients to seed lessons for");
+        }
+
+        long started = System.nanoTime();
+        List<Map<String, Object>> chunk = new ArrayList<>(SEED_CHUNK);
+        int total = weeks * lessonsPerWeek;
+        for (int i = 0; i < total; i++) {
+            int slot = i % lessonsPerWeek;
+            // Слоты по дням пн-сб, внутри дня - с 9:00 через два часа, затем с 10:00
+            int day = slot % 6;
+            int lap = slot / 6;
+            int hour = 9 + (lap < 4 ? lap * 2 : (lap - 4) * 2 + 1);
+            LocalDate date = FIRST_WEEK.plusWeeks(i / lessonsPerWeek).plusDays(day);
+
+            Map<String, Object> lesson = new HashMap<>();
+            lesson.put("dateTime", date.atTime(hour, 0).toString());
+            lesson.put("durationMinutes", 60);
+            lesson.put("description", "Занятие " + (slot + 1));
+            lesson.put("isPaid", i % 3 == 0);
+            lesson.put("client", Map.of("id", clientIds.get(i % clientIds.size())));
+            lesson.put("labelIds", labelIds.isEmpty() || i % 2 == 1
+                    ? List.of() : List.of(labelIds.get(i % labelIds.size())));
+            chunk.add(lesson);
+
+            if (chunk.size() == SEED_CHUNK || i == total - 1) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/lessons/bulk"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofMinutes(5))
+                        .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(chunk)))
+                        .build();
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Seeding failed: HTTP " + response.statusCode() + " " + response.body());
+                }
+                chunk.clear();
+            }
+        }
+        System.out.printf("seed     %d lessons in %d weeks from %s, %.1f s%n",
+                total, weeks, FIRST_WEEK, (System.nanoTime() - started) / 1e9);
+    }
+
+    private static String get(HttpClient http, String url, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " failed: HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static String login(HttpClient http, String baseUrl, String username, String password) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String body = mapper.writeValueAsString(Map.of("username", username, "password", password));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: HTTP " + response.statusCode());
+        }
+        return mapper.readTree(response.body()).get("token").asText();
+    }
+
+    // --key value
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private record Result(long[] sortedLatencies, long errors, long elapsedNanos) {
+
+        void print(String phase) {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("%-8s requests=%d errors=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                    phase, sortedLatencies.length, errors, sortedLatencies.length / seconds,
+                    percentile(0.50), percentile(0.99), percentile(1.0));
+        }
+
+        private double percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.teacher_calendar.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Задержка запросов календаря на большой таблице уроков: схема из schema.sql
+ * с составными индексами ("after") против той же схемы без CREATE INDEX ("before"),
+ * где у H2 остаются только индексы внешних ключей - как было при ddl-auto=update.
+ *
+ * Данные: --tutors репетиторов по --lessons уроков (по умолчанию 100 x 10 000 = 1M),
+ * 7 уроков в день, 10 клиентов и 3 метки на репетитора, одна метка на урок.
+ * Запросы повторяют SQL проекций LessonReadRepository; для каждого печатается план H2
+ * (EXPLAIN) и перцентили задержки.
+ *
+ *   java -Xmx3g -cp benchmarks/target/benchmarks.jar org.teacher_calendar.benchmark.WeekQueryIndexBenchmark \
+ *       --tutors 100 --lessons 10000 --queries 2000
+ */
+public class WeekQueryIndexBenchmark {
+
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2020, 1, 6, 0, 0); // понедельник
+    private static final int LESSONS_PER_DAY = 7;
+
+    private static final String LESSON_COLUMNS = "l.id, l.date_time, l.end_time, l.duration_minutes, " +
+            "l.description, l.is_paid, l.requires_preparation, l.homework_sent, l.is_trial, " +
+            "l.tutor_timezone, l.client_timezone, l.series_id, l.series_occurrence_date, " +
+            "c.id, c.name, c.phone, c.timezone, c.city, c.description, c.lesson_price ";
+
+    private static final String WEEK_ROWS = "SELECT " + LESSON_COLUMNS +
+            "FROM lessons l JOIN clients c ON c.id = l.client_id " +
+            "WHERE l.user_id = ? AND l.date_time BETWEEN ? AND ? ORDER BY l.date_time, l.id";
+    private static final String WEEK_LABEL_ROWS = "SELECT l.id, lb.id, lb.name, lb.color, lb.emoji " +
+            "FROM lessons l JOIN lesson_labels ll ON ll.lesson_id = l.id JOIN labels lb ON lb.id = ll.label_id " +
+            "WHERE l.user_id = ? AND l.date_time BETWEEN ? AND ?";
+    private static final String LABEL_PAGE = "SELECT " + LESSON_COLUMNS +
+            "FROM lessons l JOIN clients c ON c.id = l.client_id JOIN lesson_labels ll ON ll.lesson_id = l.id " +
+            "WHERE ll.label_id = ? AND l.date_time BETWEEN ? AND ? ORDER BY l.date_time, l.id FETCH FIRST 51 ROWS ONLY";
+    private static final String CLIENT_ROWS = "SELECT " + LESSON_COLUMNS +
+            "FROM lessons l JOIN clients c ON c.id = l.client_id " +
+            "WHERE c.id = ? ORDER BY l.date_time, l.id";
+    private static final String CLIENT_LIST = "SELECT c.id, c.name FROM clients c WHERE c.user_id = ? ORDER BY c.name";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int tutors = Integer.parseInt(options.getOrDefault("tutors", "100"));
+        int lessons = Integer.parseInt(options.getOrDefault("lessons", "10000"));
+        int queries = Integer.parseInt(options.getOrDefault("queries", "2000"));
+
+        String schema = readSchema();
+        System.out.printf("%d tutors x %d lessons = %d lessons, %d queries per case%n",
+                tutors, lessons, (long) tutors * lessons, queries);
+        run("before", withoutIndexes(schema), tutors, lessons, queries);
+        run("after", schema, tutors, lessons, queries);
+    }
+
+    private static void run(String phase, String schema, int tutors, int lessonsPerTutor, int queries) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + phase, "sa", "")) {
+            long started = System.nanoTime();
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : schema.split(";")) {
+                    if (!sql.isBlank()) {
+                        statement.execute(sql);
+                    }
+                }
+            }
+            seed(connection, tutors, lessonsPerTutor);
+            System.out.printf("%n=== %s: seeded in %.1f s%n", phase, (System.nanoTime() - started) / 1e9);
+
+            int days = lessonsPerTutor / LESSONS_PER_DAY;
+            int weeks = Math.max(1, days / 7);
+            int firstUser = firstId(connection, "users");
+            int firstClient = firstId(connection, "clients");
+            int firstLabel = firstId(connection, "labels");
+            Random random = new Random(42);
+
+            measure(connection, "week rows", WEEK_ROWS, queries, statement -> {
+                LocalDateTime week = FIRST_DAY.plusWeeks(random.nextInt(weeks));
+                statement.setInt(1, firstUser + random.nextInt(tutors));
+                statement.setTimestamp(2, Timestamp.valueOf(week));
+                statement.setTimestamp(3, Timestamp.valueOf(week.plusDays(7).minusNanos(1)));
+            });
+            measure(connection, "week labels", WEEK_LABEL_ROWS, queries, statement -> {
+                LocalDateTime week = FIRST_DAY.plusWeeks(random.nextInt(weeks));
+                statement.setInt(1, firstUser + random.nextInt(tutors));
+                statement.setTimestamp(2, Timestamp.valueOf(week));
+                statement.setTimestamp(3, Timestamp.valueOf(week.plusDays(7).minusNanos(1)));
+            });
+            measure(connection, "label page", LABEL_PAGE, queries, statement -> {
+                LocalDateTime from = FIRST_DAY.plusDays(random.nextInt(days));
+                statement.setInt(1, firstLabel + random.nextInt(tutors * 3));
+                statement.setTimestamp(2, Timestamp.valueOf(from));
+                statement.setTimestamp(3, Timestamp.valueOf(from.plusDays(90)));
+            });
+            measure(connection, "client rows", CLIENT_ROWS, Math.max(1, queries / 10), statement ->
+                    statement.setInt(1, firstClient + random.nextInt(tutors * 10)));
+            measure(connection, "client list", CLIENT_LIST, queries, statement ->
+                    statement.setInt(1, firstUser + random.nextInt(tutors)));
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+        }
+    }
+
+    // Все строки одним INSERT ... SELECT на таблицу; клиент и метка урока выбираются по кругу
+    private static void seed(Connection connection, int tutors, int lessonsPerTutor) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, password, timezone) " +
+                    "SELECT 'tutor-' || X, 'x', 'Europe/Moscow' FROM SYSTEM_RANGE(1, " + tutors + ")");
+            statement.execute("INSERT INTO clients (name, phone, timezone, description, lesson_price, user_id) " +
+                    "SELECT 'Клиент ' || r.X, '+7900' || r.X, 'Europe/Moscow', CAST(MOD(r.X, 10) AS VARCHAR), 1500, u.id " +
+                    "FROM users u CROSS JOIN SYSTEM_RANGE(1, 10) r ORDER BY u.id, r.X");
+            statement.execute("INSERT INTO labels (name, color, user_id) " +
+                    "SELECT 'L' || MOD(r.X, 3), '#336699', u.id " +
+                    "FROM users u CROSS JOIN SYSTEM_RANGE(1, 3) r ORDER BY u.id, r.X");
+            statement.execute("INSERT INTO lessons (id, date_time, end_time, duration_minutes, is_paid, " +
+                    "tutor_timezone, client_timezone, client_id, user_id) " +
+                    "SELECT u.id * " + lessonsPerTutor + " + r.X, " +
+                    "DATEADD('HOUR', 9 + MOD(r.X, " + LESSONS_PER_DAY + "), DATEADD('DAY', r.X / " + LESSONS_PER_DAY + ", " +
+                    "TIMESTAMP '" + Timestamp.valueOf(FIRST_DAY) + "')), " +
+                    "DATEADD('MINUTE', 60, DATEADD('HOUR', 9 + MOD(r.X, " + LESSONS_PER_DAY + "), DATEADD('DAY', r.X / " + LESSONS_PER_DAY + ", " +
+                    "TIMESTAMP '" + Timestamp.valueOf(FIRST_DAY) + "'))), " +
+                    "60, MOD(r.X, 5) <> 0, 'Europe/Moscow', 'Europe/Moscow', c.id, u.id " +
+                    "FROM users u CROSS JOIN SYSTEM_RANGE(0, " + (lessonsPerTutor - 1) + ") r " +
+                    "JOIN clients c ON c.user_id = u.id AND c.description = CAST(MOD(r.X, 10) AS VARCHAR)");
+            statement.execute("INSERT INTO lesson_labels (lesson_id, label_id) " +
+                    "SELECT l.id, lb.id FROM lessons l JOIN labels lb ON lb.user_id = l.user_id AND lb.name = 'L' || MOD(l.id, 3)");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private static void measure(Connection connection, String name, String sql, int queries, Binder binder) throws SQLException {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            binder.bind(explain);
+            try (ResultSet plan = explain.executeQuery()) {
+                plan.next();
+                System.out.printf("-- %s plan:%n%s%n", name, plan.getString(1));
+            }
+        }
+
+        long[] latencies = new long[queries];
+        long rows = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            // Прогрев: JIT и кэш страниц H2
+            for (int i = 0; i < Math.min(200, queries); i++) {
+                binder.bind(statement);
+                rows += drain(statement);
+            }
+            rows = 0;
+            for (int i = 0; i < queries; i++) {
+                binder.bind(statement);
+                long start = System.nanoTime();
+                rows += drain(statement);
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-12s rows/query=%.1f p50=%.3f ms p99=%.3f ms max=%.3f ms%n", name,
+                (double) rows / queries, percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static int drain(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static int firstId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MIN(id) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    // Схема server/src/main/resources/schema.sql без строк-комментариев
+    private static String readSchema() throws IOException {
+        try (InputStream in = WeekQueryIndexBenchmark.class.getClassLoader().getResourceAsStream("schema.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("schema.sql not found on the classpath");
+            }
+            List<String> lines = new ArrayList<>();
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (!line.trim().startsWith("--")) {
+                    lines.add(line);
+                }
+            }
+            return String.join("\n", lines);
+        }
+    }
+
+    // Та же схема без явных индексов: остаются первичные ключи и индексы внешних ключей
+    private static String withoutIndexes(String schema) {
+        List<String> statements = new ArrayList<>();
+        for (String sql : schema.split(";")) {
+            if (!sql.trim().startsWith("CREATE INDEX")) {
+                statements.add(sql);
+            }
+        }
+        return String.join(";", statements);
+    }
+
+    // --key value
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
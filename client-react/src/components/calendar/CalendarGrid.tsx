@@ -3,6 +3,7 @@ import { Box, Typography } from '@mui/material'; // Добавьте Typography
 import { format, parseISO, isToday } from 'date-fns';
 import { ru } from 'date-fns/locale';
 import { Lesson } from '../../types';
+import { lessonKey } from '../../services/lessonService';
 import CalendarEventCard from './CalendarEventCard';
 import { CALENDAR_CONFIG } from './CalendarConfig';
 import { getTimezoneOffset } from '../../constants/timezones';
@@ -305,7 +306,7 @@ const CalendarGrid: React.FC<CalendarGridProps> = ({
 
                 return (
                   <Box
-                    key={lesson.id}
+                    key={lessonKey(lesson)}
                     sx={{
                       position: 'absolute',
                       top: Math.max(top + 1, 0), // Не выходим за верхнюю границу
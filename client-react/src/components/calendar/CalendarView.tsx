@@ -2,7 +2,7 @@
 import React, { useState, useEffect } from 'react';
 import { Box, Paper } from '@mui/material';
 import { useQuery } from '@tanstack/react-query';
-import { lessonService } from '../../services/lessonService';
+import { lessonKey, lessonService } from '../../services/lessonService';
 import { format, startOfWeek, addDays, eachDayOfInterval, parseISO } from 'date-fns';
 import { ru } from 'date-fns/locale';
 import CalendarHeader from './CalendarHeader';
@@ -43,7 +43,7 @@ const CalendarView: React.FC<CalendarViewProps> = ({
 
   // Преобразуем занятия в формат для календаря
   const calendarEvents: CalendarEvent[] = lessons.map(lesson => ({
-    id: lesson.id,
+    id: lessonKey(lesson),
     start: parseISO(lesson.dateTime),
     end: new Date(parseISO(lesson.dateTime).getTime() + 60 * 60 * 1000), // +1 час
     lesson,
@@ -3,6 +3,7 @@ import React from 'react';
 import { Box } from '@mui/material';
 import CalendarEvent from './CalendarEvent';
 import { Lesson } from '../../types';
+import { lessonKey } from '../../services/lessonService';
 import { parseISO } from 'date-fns';
 
 interface DayColumnProps {
@@ -34,7 +35,7 @@ const DayColumn: React.FC<DayColumnProps> = ({
 
       return (
         <Box
-          key={lesson.id}
+          key={lessonKey(lesson)}
           sx={{
             position: 'absolute',
             top: top,
@@ -84,8 +84,8 @@ const [formData, setFormData] = useState({
   });
 
   const updateMutation = useMutation({
-    mutationFn: ({ id, data }: { id: number; data: any }) =>
-      lessonService.updateLesson(id, data),
+    mutationFn: ({ lesson, data }: { lesson: Lesson; data: any }) =>
+      lessonService.updateLesson(lesson, data),
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['lessons'] });
       onClose();
@@ -136,7 +136,7 @@ const [formData, setFormData] = useState({
       console.log('Sending lesson data:', lessonData); // Для отладки
 
       if (lesson) {
-        await updateMutation.mutateAsync({ id: lesson.id, data: lessonData });
+        await updateMutation.mutateAsync({ lesson, data: lessonData });
       } else {
         await createMutation.mutateAsync(lessonData);
       }
@@ -39,7 +39,7 @@ import {
 } from 'date-fns';
 import { ru } from 'date-fns/locale';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
-import { lessonService } from '../../services/lessonService';
+import { lessonKey, lessonService } from '../../services/lessonService';
 import { Lesson } from '../../types';
 
 interface RescheduleDialogProps {
@@ -79,8 +79,8 @@ const RescheduleDialog: React.FC<RescheduleDialogProps> = ({
 
   // Мутация для обновления занятия
   const updateMutation = useMutation({
-    mutationFn: ({ id, data }: { id: number; data: any }) =>
-      lessonService.updateLesson(id, data),
+    mutationFn: ({ lesson, data }: { lesson: Lesson; data: any }) =>
+      lessonService.updateLesson(lesson, data),
     onSuccess: () => {
       queryClient.invalidateQueries({ queryKey: ['lessons'] });
       onClose();
@@ -93,7 +93,7 @@ const RescheduleDialog: React.FC<RescheduleDialogProps> = ({
     slotTime.setHours(hour, minute, 0, 0);
 
     return currentLessons.some(l => {
-      if (l.id === lesson.id) return false; // Исключаем текущее занятие
+      if (lessonKey(l) === lessonKey(lesson)) return false; // Исключаем текущее занятие
 
       const lessonTime = parseISO(l.dateTime);
       const lessonEnd = addMinutes(lessonTime, 60); // Предполагаем 1 час
@@ -137,7 +137,7 @@ const RescheduleDialog: React.FC<RescheduleDialogProps> = ({
       labelIds: lesson.labels?.map((l: any) => l.id) || [],
     };
 
-    updateMutation.mutate({ id: lesson.id, data: lessonData });
+    updateMutation.mutate({ lesson, data: lessonData });
   };
 
   // Форматируем время для отображения
@@ -32,6 +32,7 @@ import {
   ChevronRight,
 } from '@mui/icons-material';
 import { useAuth } from '../context/AuthContext';
+import { useCalendarEvents } from '../services/eventStream';
 
 const drawerWidth = 240;
 
@@ -45,6 +46,9 @@ const MainLayout: React.FC = () => {
   const theme = useTheme();
   const isMobile = useMediaQuery(theme.breakpoints.down('sm'));
 
+  // Изменения с других устройств репетитора приходят без перезагрузки недели
+  useCalendarEvents(!!user);
+
   const menuItems = [
     { text: 'Дашборд', icon: <DashboardIcon />, path: '/dashboard' },
     { text: 'Клиенты', icon: <PeopleIcon />, path: '/clients' },
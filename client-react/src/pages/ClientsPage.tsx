@@ -44,10 +44,10 @@ const ClientsPage: React.FC = () => {
   const [editingClient, setEditingClient] = useState<Client | null>(null)
   const [snackbar, setSnackbar] = useState({ open: false, message: '', severity: 'success' as 'success' | 'error' })
 
-  // Запрос для получения клиентов
-  const { data: clients = [], isLoading, error } = useQuery({
-    queryKey: ['clients'],
-    queryFn: () => clientService.getAllClients(),
+  // Запрос для получения клиентов вместе со статистикой уроков
+  const { data: clientStats = [], isLoading, error } = useQuery({
+    queryKey: ['clients', 'stats'],
+    queryFn: () => clientService.getClientsWithStats(),
   })
 
   // Мутация для создания клиента
@@ -203,11 +203,13 @@ const ClientsPage: React.FC = () => {
               <TableCell>Город</TableCell>
               <TableCell>Часовой пояс</TableCell>
               <TableCell>Стоимость занятия</TableCell>
+              <TableCell>Занятия</TableCell>
+              <TableCell>Долг</TableCell>
               <TableCell align="right">Действия</TableCell>
             </TableRow>
           </TableHead>
           <TableBody>
-            {clients.map((client) => (
+            {clientStats.map(({ client, ...stats }) => (
               <TableRow key={client.id} hover>
                 <TableCell>
                   <Typography variant="subtitle1" fontWeight="medium">
@@ -248,6 +250,30 @@ const ClientsPage: React.FC = () => {
                     </Typography>
                   )}
                 </TableCell>
+                <TableCell>
+                  <Typography variant="body2">{stats.lessonCount}</Typography>
+                  {stats.nextLessonAt && (
+                    <Typography variant="body2" color="text.secondary">
+                      Следующее: {new Date(stats.nextLessonAt).toLocaleDateString('ru-RU')}
+                    </Typography>
+                  )}
+                  {!stats.nextLessonAt && stats.lastLessonAt && (
+                    <Typography variant="body2" color="text.secondary">
+                      Последнее: {new Date(stats.lastLessonAt).toLocaleDateString('ru-RU')}
+                    </Typography>
+                  )}
+                </TableCell>
+                <TableCell>
+                  {stats.unpaidCount > 0 && (
+                    <Tooltip title={`Неоплаченных занятий: ${stats.unpaidCount}`}>
+                      <Chip
+                        label={`${stats.unpaidTotal.toLocaleString('ru-RU')} ₽`}
+                        size="small"
+                        color="warning"
+                      />
+                    </Tooltip>
+                  )}
+                </TableCell>
                 <TableCell align="right">
                   <Tooltip title="Редактировать">
                     <IconButton
@@ -1,7 +1,7 @@
 import axios from 'axios'
 
 // Базовый URL для API (Vite proxy настроен на 8080 порт)
-const API_BASE_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080'
+export const API_BASE_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080'
 
 const api = axios.create({
   baseURL: `${API_BASE_URL}/api`,
@@ -11,9 +11,16 @@ const api = axios.create({
   withCredentials: true, // Важно для сессий и CORS
 })
 
-// Interceptor для логирования запросов
+// Ключ localStorage, под которым лежит токен доступа, выданный /auth/login
+export const AUTH_TOKEN_KEY = 'authToken'
+
+// Interceptor для логирования запросов и подстановки токена
 api.interceptors.request.use(
   (config) => {
+    const token = localStorage.getItem(AUTH_TOKEN_KEY)
+    if (token) {
+      config.headers.Authorization = `Bearer ${token}`
+    }
     console.log(`[API Request] ${config.method?.toUpperCase()} ${config.url}`)
     if (config.data) {
       console.log('[Request Data]:', config.data)
@@ -37,6 +44,11 @@ api.interceptors.response.use(
     console.error('[API Response Error]:', error)
 
     if (error.response) {
+      // Токен истёк или недействителен - забываем его, дальше сработает переход на /login
+      if (error.response.status === 401) {
+        localStorage.removeItem(AUTH_TOKEN_KEY)
+        localStorage.removeItem('currentUserId')
+      }
       console.error('Error Status:', error.response.status)
       console.error('Error Data:', error.response.data)
       console.error('Error Headers:', error.response.headers)
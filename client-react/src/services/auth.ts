@@ -1,22 +1,35 @@
-import api from './api'
+import api, { AUTH_TOKEN_KEY } from './api'
 import { User } from '../types'
 
+// Ответ /auth/login и /auth/register: подписанный токен и сам пользователь
+interface AuthResponse {
+  token: string
+  expiresAt: number // epoch-секунды
+  user: User
+}
+
 class AuthService {
   async login(username: string, password: string): Promise<User> {
-    const response = await api.post<User>('/auth/login', { username, password })
-    // Сохраняем ID пользователя для использования в запросах
-    localStorage.setItem('currentUserId', response.data.id.toString())
-    return response.data
+    const response = await api.post<AuthResponse>('/auth/login', { username, password })
+    return this.storeSession(response.data)
   }
 
   async register(username: string, password: string): Promise<User> {
-    const response = await api.post<User>('/auth/register', { username, password })
-    localStorage.setItem('currentUserId', response.data.id.toString())
-    return response.data
+    const response = await api.post<AuthResponse>('/auth/register', { username, password })
+    return this.storeSession(response.data)
+  }
+
+  // Токен уходит в заголовке Authorization каждого запроса (см. api.ts)
+  private storeSession(data: AuthResponse): User {
+    localStorage.setItem(AUTH_TOKEN_KEY, data.token)
+    localStorage.setItem('currentUserId', data.user.id.toString())
+    localStorage.setItem('username', data.user.username)
+    return data.user
   }
 
   async logout(): Promise<void> {
     // Очищаем локальное хранилище
+    localStorage.removeItem(AUTH_TOKEN_KEY)
     localStorage.removeItem('currentUserId')
     // Можно добавить вызов API логаута, если он есть
   }
@@ -25,7 +38,7 @@ class AuthService {
     try {
       // В вашем бэкенде нет /auth/me эндпоинта, так что получаем из localStorage
       const userId = localStorage.getItem('currentUserId')
-      if (!userId) return null
+      if (!userId || !localStorage.getItem(AUTH_TOKEN_KEY)) return null
 
       // Если нужно получать данные пользователя, нужно создать эндпоинт
       return {
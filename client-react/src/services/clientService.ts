@@ -1,5 +1,5 @@
 import api from './api'
-import { Client } from '../types'
+import { Client, ClientStats } from '../types'
 
 class ClientService {
   // Получить всех клиентов
@@ -8,6 +8,12 @@ class ClientService {
     return response.data
   }
 
+  // Все клиенты со статистикой уроков одним запросом
+  async getClientsWithStats(): Promise<ClientStats[]> {
+    const response = await api.get<ClientStats[]>('/clients/stats')
+    return response.data
+  }
+
   // Получить клиента по ID
   async getClientById(id: number): Promise<Client> {
     const response = await api.get<Client>(`/clients/${id}`)
@@ -31,9 +37,9 @@ class ClientService {
     await api.delete(`/clients/${id}`)
   }
 
-  // Поиск клиентов по имени
-  async searchClients(name: string): Promise<Client[]> {
-    const response = await api.get<Client[]>(`/clients/search?name=${encodeURIComponent(name)}`)
+  // Поиск клиентов по имени, телефону или городу; лучшие совпадения первыми
+  async searchClients(name: string, limit = 20): Promise<Client[]> {
+    const response = await api.get<Client[]>(`/clients/search?name=${encodeURIComponent(name)}&limit=${limit}`)
     return response.data
   }
 }
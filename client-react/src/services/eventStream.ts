@@ -0,0 +1,116 @@
+// src/services/eventStream.ts - изменения календаря с сервера (SSE /api/events/stream)
+import { useEffect } from 'react'
+import { QueryClient, useQueryClient } from '@tanstack/react-query'
+import { API_BASE_URL, AUTH_TOKEN_KEY } from './api'
+import { Lesson } from '../types'
+
+// Событие "change": ChangeEventDto на сервере
+interface ChangeEvent {
+  entity: 'lesson' | 'client' | 'label' | null
+  action: 'created' | 'updated' | 'deleted' | 'resync'
+  id: number | null
+  data: any
+}
+
+interface Identified {
+  id: number
+}
+
+// Неделя ['lessons', 'yyyy-MM-dd', ...] содержит урок, если его дата в [weekStart, weekStart + 7 дней).
+// Время уроков сервер хранит и отдаёт в UTC, как и фильтрует /lessons/week
+const inWeek = (dateTime: string, weekStart: string): boolean => {
+  const end = new Date(`${weekStart}T00:00:00Z`)
+  end.setUTCDate(end.getUTCDate() + 7)
+  const day = dateTime.slice(0, 10)
+  return day >= weekStart && day < end.toISOString().slice(0, 10)
+}
+
+const byDateTime = (a: Lesson, b: Lesson) => a.dateTime.localeCompare(b.dateTime)
+
+const patchLessons = (queryClient: QueryClient, change: ChangeEvent) => {
+  queryClient.getQueryCache().findAll({ queryKey: ['lessons'] }).forEach(query => {
+    const weekStart = query.queryKey[1]
+    const lessons = query.state.data as Lesson[] | undefined
+    if (typeof weekStart !== 'string' || !Array.isArray(lessons)) {
+      return
+    }
+
+    // Урок мог переехать на другую неделю - сначала убираем его отовсюду
+    let next = lessons.filter(lesson => lesson.id !== change.id)
+    if (change.action !== 'deleted' && change.data && inWeek(change.data.dateTime, weekStart)) {
+      next = [...next, change.data as Lesson].sort(byDateTime)
+    }
+    if (next.length !== lessons.length || next.some((lesson, i) => lesson !== lessons[i])) {
+      queryClient.setQueryData(query.queryKey, next)
+    }
+  })
+}
+
+const patchList = <T extends Identified>(queryClient: QueryClient, key: string[], change: ChangeEvent) => {
+  queryClient.setQueryData<T[]>(key, list => {
+    if (!list) {
+      return list
+    }
+    const rest = list.filter(item => item.id !== change.id)
+    return change.action === 'deleted' ? rest : [...rest, change.data as T]
+  })
+}
+
+const applyChange = (queryClient: QueryClient, change: ChangeEvent) => {
+  if (change.action === 'resync') {
+    queryClient.invalidateQueries()
+    return
+  }
+
+  switch (change.entity) {
+    case 'lesson':
+      patchLessons(queryClient, change)
+      queryClient.invalidateQueries({ queryKey: ['clients', 'stats'] })
+      break
+    case 'client':
+      patchList(queryClient, ['clients'], change)
+      queryClient.invalidateQueries({ queryKey: ['clients', 'stats'] })
+      if (change.action !== 'created') {
+        // Имя и цена клиента вложены в уроки; при удалении уроки удалены каскадом
+        queryClient.invalidateQueries({ queryKey: ['lessons'] })
+      }
+      break
+    case 'label':
+      patchList(queryClient, ['labels'], change)
+      if (change.action !== 'created') {
+        queryClient.invalidateQueries({ queryKey: ['lessons'] })
+      }
+      break
+  }
+}
+
+// Подписка на изменения, пока пользователь вошёл: кэш react-query правится по событиям,
+// а после переподключения (или resync от сервера) перечитывается целиком
+export const useCalendarEvents = (enabled: boolean) => {
+  const queryClient = useQueryClient()
+
+  useEffect(() => {
+    const token = localStorage.getItem(AUTH_TOKEN_KEY)
+    if (!enabled || !token) {
+      return
+    }
+
+    // EventSource не умеет заголовки - токен уходит параметром, сервер принимает его только здесь
+    const source = new EventSource(
+      `${API_BASE_URL}/api/events/stream?access_token=${encodeURIComponent(token)}`)
+    let connected = false
+
+    source.addEventListener('ready', () => {
+      // Пока соединения не было, изменения могли пройти мимо
+      if (connected) {
+        queryClient.invalidateQueries()
+      }
+      connected = true
+    })
+    source.addEventListener('change', event => {
+      applyChange(queryClient, JSON.parse((event as MessageEvent).data) as ChangeEvent)
+    })
+
+    return () => source.close()
+  }, [enabled, queryClient])
+}
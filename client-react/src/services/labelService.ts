@@ -1,6 +1,7 @@
 // src/services/labelService.ts - КОРРЕКТНАЯ ВЕРСИЯ
 import api from './api'; // Убедитесь, что этот импорт правильный
-import { Label } from '../types'
+import { Label, Lesson } from '../types'
+import { lessonService } from './lessonService'
 
 class LabelService {
   // Получить все метки
@@ -27,18 +28,20 @@ class LabelService {
   }
 
   // Добавить метку к занятию
-  async addLabelToLesson(lessonId: number, labelId: number): Promise<void> {
+  async addLabelToLesson(lesson: Lesson, labelId: number): Promise<void> {
+    const lessonId = await lessonService.ensureLessonId(lesson);
     await api.post(`/lessons/${lessonId}/labels/${labelId}`);
   }
 
   // Удалить метку с занятия
-  async removeLabelFromLesson(lessonId: number, labelId: number): Promise<void> {
+  async removeLabelFromLesson(lesson: Lesson, labelId: number): Promise<void> {
+    const lessonId = await lessonService.ensureLessonId(lesson);
     await api.delete(`/lessons/${lessonId}/labels/${labelId}`);
   }
 
   // Обновить статусы занятия
   async updateLessonStatus(
-    lessonId: number,
+    lesson: Lesson,
     status: {
       isPaid?: boolean
       requiresPreparation?: boolean
@@ -46,6 +49,7 @@ class LabelService {
       isTrial?: boolean
     }
   ): Promise<void> {
+    const lessonId = await lessonService.ensureLessonId(lesson);
     await api.patch(`/lessons/${lessonId}/status`, status);
   }
 }
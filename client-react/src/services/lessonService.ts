@@ -1,10 +1,26 @@
 import api from './api'
-import { Lesson, LessonCreate } from '../types'
+import { Lesson, LessonCreate, LessonPage } from '../types'
+
+// Ключ для списков и сравнения: у вхождения серии нет id, его определяют серия и дата
+export const lessonKey = (lesson: Lesson): string =>
+  lesson.id != null ? String(lesson.id) : `${lesson.seriesId}:${lesson.occurrenceDate}`
 
 class LessonService {
-  // Получить все занятия
-  async getAllLessons(): Promise<Lesson[]> {
-    const response = await api.get<Lesson[]>('/lessons')
+  // id урока для /lessons/{id}: вхождение серии сначала становится настоящим уроком на сервере
+  async ensureLessonId(lesson: Lesson): Promise<number> {
+    if (lesson.id != null) {
+      return lesson.id
+    }
+    if (lesson.seriesId == null || !lesson.occurrenceDate) {
+      throw new Error('Lesson has neither id nor series occurrence')
+    }
+    const response = await api.post<Lesson>(`/series/${lesson.seriesId}/occurrences/${lesson.occurrenceDate}`)
+    return response.data.id as number
+  }
+
+  // Получить страницу истории занятий (cursor берётся из nextCursor предыдущей страницы)
+  async getLessonsPage(cursor?: string, size?: number): Promise<LessonPage> {
+    const response = await api.get<LessonPage>('/lessons', { params: { cursor, size } })
     return response.data
   }
 
@@ -20,6 +36,22 @@ class LessonService {
     return response.data
   }
 
+  // Фильтр по меткам: all - есть все метки, any - есть хотя бы одна; from/to - даты yyyy-MM-dd
+  async getLessonsByLabels(
+    filter: { all?: number[]; any?: number[]; from?: string; to?: string; limit?: number }
+  ): Promise<Lesson[]> {
+    const response = await api.get<Lesson[]>('/lessons/by-labels', {
+      params: {
+        all: filter.all?.length ? filter.all.join(',') : undefined,
+        any: filter.any?.length ? filter.any.join(',') : undefined,
+        from: filter.from,
+        to: filter.to,
+        limit: filter.limit,
+      },
+    })
+    return response.data
+  }
+
   // Создать занятие (отправляем только clientId, а не весь объект клиента)
   async createLesson(lesson: LessonCreate): Promise<Lesson> {
     // Если нет endTime, но есть durationMinutes, рассчитываем
@@ -32,20 +64,25 @@ class LessonService {
     return response.data;
   }
 
-async updateLesson(id: number, lesson: Partial<LessonCreate>): Promise<Lesson> {
+async updateLesson(existing: Lesson, lesson: Partial<LessonCreate>): Promise<Lesson> {
   if (!lesson.endTime && lesson.durationMinutes) {
     const startDate = new Date(lesson.dateTime);
     const endDate = new Date(startDate.getTime() + lesson.durationMinutes * 60 * 1000);
     lesson.endTime = endDate.toISOString();
   }
 
+  const id = await this.ensureLessonId(existing);
   const response = await api.put<Lesson>(`/lessons/${id}`, lesson);
   return response.data;
 }
 
-  // Удалить занятие
-  async deleteLesson(id: number): Promise<void> {
-    await api.delete(`/lessons/${id}`)
+  // Удалить занятие; вхождение серии не материализуется, а отменяется
+  async deleteLesson(lesson: Lesson): Promise<void> {
+    if (lesson.id == null && lesson.seriesId != null && lesson.occurrenceDate) {
+      await api.delete(`/series/${lesson.seriesId}/occurrences/${lesson.occurrenceDate}`)
+      return
+    }
+    await api.delete(`/lessons/${await this.ensureLessonId(lesson)}`)
   }
 }
 
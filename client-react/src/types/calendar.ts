@@ -8,7 +8,7 @@ export interface TimeSlot {
 }
 
 export interface CalendarEvent {
-  id: number;
+  id: string; // lessonKey: у вхождения серии нет числового id
   start: Date;
   end: Date;
   lesson: any; // Lesson из существующих типов
@@ -1,5 +1,5 @@
 export interface Lesson {
-  id: number
+  id: number | null // null - вхождение серии, ещё не ставшее уроком (см. lessonService.ensureLessonId)
   dateTime: string
   endTime?: string // Добавляем время окончания
   durationMinutes?: number  // Добавлено
@@ -12,6 +12,24 @@ export interface Lesson {
   labels: Label[]
   tutorTimezone?: string
   clientTimezone?: string
+  seriesId?: number | null // Урок из повторяющейся серии
+  occurrenceDate?: string | null // У ещё не сохранённого вхождения серии id === null
+}
+
+export interface LessonPage {
+  items: Lesson[]
+  nextCursor: string | null
+  totalCount?: number | null
+}
+
+// Клиент со статистикой уроков (GET /clients/stats)
+export interface ClientStats {
+  client: Client
+  lessonCount: number
+  lastLessonAt: string | null
+  nextLessonAt: string | null
+  unpaidCount: number
+  unpaidTotal: number
 }
 
 export interface LessonCreate {
@@ -2,6 +2,7 @@ package org.teacher_calendar.config;
 
 import org.teacher_calendar.entity.*;
 import org.teacher_calendar.repository.*;
+import org.teacher_calendar.service.RevenueService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +27,7 @@ public class DataInitializer {
             ClientRepository clientRepository,
             LessonRepository lessonRepository,
             LabelRepository labelRepository,
+            RevenueService revenueService,
             PasswordEncoder passwordEncoder) {
 
         return args -> {
@@ -154,6 +156,8 @@ public class DataInitializer {
                     }
 
                     lessonRepository.save(lesson1);
+                    // Урок записан мимо LessonService - агрегаты выручки собираем из таблицы
+                    revenueService.rebuild(tutor.getId());
 
                     logger.info("Создано тестовое занятие с пользовательской меткой");
                 }
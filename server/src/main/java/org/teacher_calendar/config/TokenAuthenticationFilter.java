@@ -0,0 +1,66 @@
+package org.teacher_calendar.config;
+
+import org.teacher_calendar.controller.UserContext;
+import org.teacher_calendar.service.TokenService;
+import org.teacher_calendar.service.UserCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Проверяет токен из заголовка Authorization: Bearer и заполняет UserContext запроса.
+ * Для потока событий (EventSource не умеет заголовки) токен принимается и параметром access_token.
+ * Без действительного токена запрос идёт дальше анонимным, а закрытые пути
+ * отклоняет уже SecurityConfig (401).
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String TOKEN_PARAMETER = "access_token";
+    // Только здесь: токен в URL попадает в журналы прокси и историю браузера
+    private static final String EVENT_STREAM_PATH = "/api/events/stream";
+
+    private final TokenService tokenService;
+    private final UserCache userCache;
+    private final UserContext userContext;
+
+    public TokenAuthenticationFilter(TokenService tokenService, UserCache userCache, UserContext userContext) {
+        this.tokenService = tokenService;
+        this.userCache = userCache;
+        this.userContext = userContext;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Integer userId = tokenService.verify(tokenFrom(request));
+
+        // Токен мог пережить удалённого пользователя
+        if (userId != null && userCache.find(userId) != null) {
+            userContext.setCurrentUserId(userId);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String tokenFrom(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length()).trim();
+        }
+        if (EVENT_STREAM_PATH.equals(request.getRequestURI())) {
+            return request.getParameter(TOKEN_PARAMETER);
+        }
+        return null;
+    }
+}
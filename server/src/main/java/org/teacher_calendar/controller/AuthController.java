@@ -1,7 +1,10 @@
 package org.teacher_calendar.controller;
 
 import org.teacher_calendar.dto.AuthRequest;
+import org.teacher_calendar.dto.AuthResponse;
 import org.teacher_calendar.dto.UserDto;
+import org.teacher_calendar.service.LoginThrottledException;
+import org.teacher_calendar.service.TokenService;
 import org.teacher_calendar.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,27 +20,28 @@ public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
     private final UserService userService;
-    private final UserContext userContext;
+    private final TokenService tokenService;
 
     @Autowired
-    public AuthController(UserService userService, UserContext userContext) {
+    public AuthController(UserService userService, TokenService tokenService) {
         this.userService = userService;
-        this.userContext = userContext;
+        this.tokenService = tokenService;
     }
 
-    // POST /api/auth/login - аутентификация пользователя
+    // POST /api/auth/login - аутентификация пользователя, в ответе подписанный токен
     @PostMapping("/login")
-    public ResponseEntity<UserDto> login(@RequestBody AuthRequest authRequest) {
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest authRequest) {
         try {
             logger.info("Login attempt for user: {}", authRequest.getUsername());
 
             UserDto user = userService.authenticate(authRequest.getUsername(), authRequest.getPassword());
-
-            // Устанавливаем ID пользователя в контекст
-            userContext.setCurrentUserId(user.getId());
+            TokenService.Token token = tokenService.issue(user.getId());
 
             logger.info("Login successful for user: {}", authRequest.getUsername());
-            return ResponseEntity.ok(user);
+            return ResponseEntity.ok(new AuthResponse(token.value(), token.expiresAt(), user));
+        } catch (LoginThrottledException e) {
+            logger.warn("Login throttled for user: {}", authRequest.getUsername());
+            return ResponseEntity.status(429).body(null);
         } catch (RuntimeException e) {
             logger.error("Login failed for user: {}, error: {}", authRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(401).body(null);
@@ -46,7 +50,7 @@ public class AuthController {
 
     // POST /api/auth/register - регистрация нового пользователя
     @PostMapping("/register")
-    public ResponseEntity<UserDto> register(@RequestBody AuthRequest authRequest) {
+    public ResponseEntity<AuthResponse> register(@RequestBody AuthRequest authRequest) {
         try {
             logger.info("Registration attempt for user: {}", authRequest.getUsername());
 
@@ -55,12 +59,13 @@ public class AuthController {
             userDto.setTimezone("Europe/Moscow");
 
             UserDto createdUser = userService.createUser(userDto, authRequest.getPassword());
-
-            // Устанавливаем ID пользователя в контекст
-            userContext.setCurrentUserId(createdUser.getId());
+            TokenService.Token token = tokenService.issue(createdUser.getId());
 
             logger.info("Registration successful for user: {}", authRequest.getUsername());
-            return ResponseEntity.ok(createdUser);
+            return ResponseEntity.ok(new AuthResponse(token.value(), token.expiresAt(), createdUser));
+        } catch (LoginThrottledException e) {
+            logger.warn("Registration throttled for user: {}", authRequest.getUsername());
+            return ResponseEntity.status(429).body(null);
         } catch (RuntimeException e) {
             logger.error("Registration failed for user: {}, error: {}", authRequest.getUsername(), e.getMessage());
             return ResponseEntity.badRequest().body(null);
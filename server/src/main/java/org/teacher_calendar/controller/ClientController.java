@@ -1,6 +1,7 @@
 package org.teacher_calendar.controller;
 
 import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.ClientStatsDto;
 import org.teacher_calendar.service.ClientService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -28,9 +29,15 @@ public class ClientController {
         return ResponseEntity.ok(clients);
     }
 
+    // Список клиентов для страницы клиентов: вместе со статистикой уроков
+    @GetMapping("/stats")
+    public ResponseEntity<List<ClientStatsDto>> getClientsWithStats() {
+        return ResponseEntity.ok(clientService.getClientsWithStats(userContext.getCurrentUserId()));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ClientDto> getClientById(@PathVariable("id") Integer id) {
-        ClientDto client = clientService.getClientById(id);
+        ClientDto client = clientService.getClientById(id, userContext.getCurrentUserId());
         if (client != null) {
             return ResponseEntity.ok(client);
         } else {
@@ -46,7 +53,7 @@ public class ClientController {
 
     @PutMapping("/{id}")
     public ResponseEntity<ClientDto> updateClient(@PathVariable("id") Integer id, @RequestBody ClientDto clientDto) {
-        ClientDto updatedClient = clientService.updateClient(id, clientDto);
+        ClientDto updatedClient = clientService.updateClient(id, clientDto, userContext.getCurrentUserId());
         if (updatedClient != null) {
             return ResponseEntity.ok(updatedClient);
         } else {
@@ -56,7 +63,7 @@ public class ClientController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteClient(@PathVariable("id") Integer id) {
-        boolean deleted = clientService.deleteClient(id);
+        boolean deleted = clientService.deleteClient(id, userContext.getCurrentUserId());
         if (deleted) {
             return ResponseEntity.ok().build();
         } else {
@@ -65,8 +72,9 @@ public class ClientController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ClientDto>> searchClients(@RequestParam String name) {
-        List<ClientDto> clients = clientService.searchClientsByName(name);
+    public ResponseEntity<List<ClientDto>> searchClients(@RequestParam String name,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        List<ClientDto> clients = clientService.searchClients(name, limit, userContext.getCurrentUserId());
         return ResponseEntity.ok(clients);
     }
 }
\ No newline at end of file
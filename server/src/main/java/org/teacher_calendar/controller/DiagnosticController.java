@@ -1,6 +1,14 @@
 package org.teacher_calendar.controller;
 
+import org.teacher_calendar.service.CalendarEventHub;
+import org.teacher_calendar.service.ClientSearchIndex;
+import org.teacher_calendar.service.LabelCache;
+import org.teacher_calendar.service.LessonLabelIndex;
+import org.teacher_calendar.service.TokenService;
+import org.teacher_calendar.service.UserCache;
+import org.teacher_calendar.service.WeekLessonCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -9,13 +17,36 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.List;
 import java.util.Map;
 
+// Статистика кэшей и потоков событий по всем репетиторам - только для разработки (--spring.profiles.active=dev)
 @RestController
 @RequestMapping("/api/diagnostic")
+@Profile("dev")
 public class DiagnosticController {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private WeekLessonCache weekLessonCache;
+
+    @Autowired
+    private LessonLabelIndex lessonLabelIndex;
+
+    @Autowired
+    private LabelCache labelCache;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ClientSearchIndex clientSearchIndex;
+
+    @Autowired
+    private CalendarEventHub calendarEventHub;
+
     @GetMapping("/tables")
     public List<Map<String, Object>> listTables() {
         return jdbcTemplate.queryForList(
@@ -23,9 +54,21 @@ public class DiagnosticController {
         );
     }
 
-    @GetMapping("/users")
-    public List<Map<String, Object>> listUsers() {
-        return jdbcTemplate.queryForList("SELECT * FROM users");
+    @GetMapping("/cache")
+    public Map<String, Object> cacheStats() {
+        return Map.of(
+                "weekLessons", weekLessonCache.stats(),
+                "labelIndex", lessonLabelIndex.stats(),
+                "labels", labelCache.stats(),
+                "users", userCache.stats(),
+                "tokens", tokenService.stats(),
+                "clientSearch", clientSearchIndex.stats());
+    }
+
+    // Подписчики потока событий и сколько событий отправлено / сколько подписчиков отключено за отставание
+    @GetMapping("/events")
+    public Map<String, Object> eventStats() {
+        return calendarEventHub.stats();
     }
 
     @GetMapping("/controllers")
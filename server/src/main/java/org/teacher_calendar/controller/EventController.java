@@ -0,0 +1,29 @@
+package org.teacher_calendar.controller;
+
+import org.teacher_calendar.service.CalendarEventHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventController {
+
+    private final CalendarEventHub calendarEventHub;
+    private final UserContext userContext;
+
+    @Autowired
+    public EventController(CalendarEventHub calendarEventHub, UserContext userContext) {
+        this.calendarEventHub = calendarEventHub;
+        this.userContext = userContext;
+    }
+
+    // Поток изменений уроков, клиентов и меток текущего репетитора (EventSource).
+    // EventSource не умеет заголовки, поэтому токен можно передать параметром access_token
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return calendarEventHub.subscribe(userContext.getCurrentUserId());
+    }
+}
@@ -1,13 +1,34 @@
 package org.teacher_calendar.controller;
 
+import org.teacher_calendar.service.LessonConflictException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Пересечение уроков: 409 со списком уроков, с которыми конфликтует запись
+    @ExceptionHandler(LessonConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleLessonConflict(LessonConflictException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "LESSON_CONFLICT");
+        body.put("message", ex.getMessage());
+        body.put("conflicts", ex.getConflicts());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    // Нет такого эндпоинта (например, /api/diagnostic без профиля dev): 404, а не 500
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<Void> handleNoResource(NoResourceFoundException ex) {
+        return ResponseEntity.notFound().build();
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeException(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -1,8 +1,12 @@
 package org.teacher_calendar.controller;
 
 import org.teacher_calendar.dto.LabelDto; // Этот импорт должен быть
+import org.teacher_calendar.service.DataVersionService;
 import org.teacher_calendar.service.LabelService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,24 +19,42 @@ public class LabelController {
 
     private final LabelService labelService;
     private final UserContext userContext;
+    private final DataVersionService dataVersionService;
 
     @Autowired
-    public LabelController(LabelService labelService, UserContext userContext) {
+    public LabelController(LabelService labelService, UserContext userContext,
+                           DataVersionService dataVersionService) {
         this.labelService = labelService;
         this.userContext = userContext;
+        this.dataVersionService = dataVersionService;
     }
 
     @GetMapping
-    public ResponseEntity<List<LabelDto>> getAllLabels() {
-        List<LabelDto> labels = labelService.getAllLabels(userContext.getCurrentUserId());
-        return ResponseEntity.ok(labels);
+    public ResponseEntity<List<LabelDto>> getAllLabels(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Integer userId = userContext.getCurrentUserId();
+        String etag = dataVersionService.etag(userId);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        List<LabelDto> labels = labelService.getAllLabels(userId);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(labels);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<LabelDto> getLabelById(@PathVariable("id") Integer id) {
-        LabelDto label = labelService.getLabelById(id);
+    public ResponseEntity<LabelDto> getLabelById(
+            @PathVariable("id") Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Integer userId = userContext.getCurrentUserId();
+        String etag = dataVersionService.etag(userId);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        LabelDto label = labelService.getLabelById(id, userId);
         if (label != null) {
-            return ResponseEntity.ok(label);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(label);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -46,7 +68,7 @@ public class LabelController {
 
     @PutMapping("/{id}")
     public ResponseEntity<LabelDto> updateLabel(@PathVariable("id") Integer id, @RequestBody LabelDto labelDto) {
-        LabelDto updatedLabel = labelService.updateLabel(id, labelDto);
+        LabelDto updatedLabel = labelService.updateLabel(id, labelDto, userContext.getCurrentUserId());
         if (updatedLabel != null) {
             return ResponseEntity.ok(updatedLabel);
         } else {
@@ -56,7 +78,7 @@ public class LabelController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteLabel(@PathVariable("id") Integer id) {
-        boolean deleted = labelService.deleteLabel(id);
+        boolean deleted = labelService.deleteLabel(id, userContext.getCurrentUserId());
         if (deleted) {
             return ResponseEntity.ok().build();
         } else {
@@ -1,13 +1,27 @@
 package org.teacher_calendar.controller;
 
 import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.dto.LessonPageDto;
+import org.teacher_calendar.service.DataVersionService;
 import org.teacher_calendar.service.LessonService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 
@@ -16,38 +30,155 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class LessonController {
 
+    // Максимальный размер страницы истории занятий (по умолчанию - 100)
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final LessonService lessonService;
     private final UserContext userContext;
+    private final ObjectMapper objectMapper;
+    private final DataVersionService dataVersionService;
 
     @Autowired
-    public LessonController(LessonService lessonService, UserContext userContext) {
+    public LessonController(LessonService lessonService, UserContext userContext, ObjectMapper objectMapper,
+                            DataVersionService dataVersionService) {
         this.lessonService = lessonService;
         this.userContext = userContext;
+        this.objectMapper = objectMapper;
+        this.dataVersionService = dataVersionService;
     }
 
     @GetMapping
-    public ResponseEntity<List<LessonDto>> getAllLessons() {
-        List<LessonDto> lessons = lessonService.getAllLessons(userContext.getCurrentUserId());
-        return ResponseEntity.ok(lessons);
+    public ResponseEntity<LessonPageDto> getLessonsPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "100") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Integer userId = userContext.getCurrentUserId();
+        String etag = dataVersionService.etag(userId);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LessonPageDto page = lessonService.getLessonsPage(cursor, pageSize, userId);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(page);
+    }
+
+    // Выгрузка всей истории в NDJSON (один урок - одна строка), потоком без сборки списка в памяти
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportLessons() {
+        // UserContext привязан к запросу, поэтому читаем его до ухода в асинхронный поток
+        Integer userId = userContext.getCurrentUserId();
+        ObjectWriter writer = objectMapper.writerFor(LessonDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            try {
+                lessonService.exportLessons(userId, chunk -> {
+                    try {
+                        for (LessonDto lesson : chunk) {
+                            writer.writeValue(generator, lesson);
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                generator.close();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lessons.ndjson\"")
+                .body(body);
     }
 
     @GetMapping("/week")
     public ResponseEntity<List<LessonDto>> getLessonsForWeek(
-            @RequestParam("weekStart") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekStart) {
-        List<LessonDto> lessons = lessonService.getLessonsForWeek(weekStart, userContext.getCurrentUserId());
-        return ResponseEntity.ok(lessons);
+            @RequestParam("weekStart") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekStart,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Integer userId = userContext.getCurrentUserId();
+        String etag = dataVersionService.etag(userId);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        List<LessonDto> lessons = lessonService.getLessonsForWeek(weekStart, userId);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(lessons);
+    }
+
+    // Прошедшие неоплаченные уроки текущего репетитора (без ETag: набор меняется и со временем)
+    @GetMapping("/unpaid")
+    public ResponseEntity<List<LessonDto>> getUnpaidLessons() {
+        return ResponseEntity.ok(lessonService.getUnpaidLessons(userContext.getCurrentUserId()));
     }
 
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<LessonDto>> getLessonsByClient(@PathVariable("clientId") Integer clientId) {
-        List<LessonDto> lessons = lessonService.getLessonsByClient(clientId);
-        return ResponseEntity.ok(lessons);
+    public ResponseEntity<List<LessonDto>> getLessonsByClient(
+            @PathVariable("clientId") Integer clientId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Integer userId = userContext.getCurrentUserId();
+        String etag = dataVersionService.etag(userId);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        List<LessonDto> lessons = lessonService.getLessonsByClient(clientId, userId);
+        if (lessons == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(lessons);
     }
 
+    // Уроки с меткой: постранично (cursor из nextCursor), с необязательными границами дат и общим числом
     @GetMapping("/label/{labelId}")
-    public ResponseEntity<List<LessonDto>> getLessonsByLabel(@PathVariable("labelId") Integer labelId) {
-        List<LessonDto> lessons = lessonService.getLessonsByLabel(labelId, userContext.getCurrentUserId());
-        return ResponseEntity.ok(lessons);
+    public ResponseEntity<LessonPageDto> getLessonsByLabel(
+            @PathVariable("labelId") Integer labelId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "100") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Integer userId = userContext.getCurrentUserId();
+        String etag = dataVersionService.etag(userId);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LessonPageDto page = lessonService.getLessonsByLabel(labelId,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.atTime(LocalTime.MAX) : null,
+                cursor, pageSize, userId);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(page);
+    }
+
+    // Фильтр по набору меток: ?all=1,2 - есть все метки, ?any=3,4 - есть хотя бы одна (можно вместе)
+    @GetMapping("/by-labels")
+    public ResponseEntity<List<LessonDto>> getLessonsByLabels(
+            @RequestParam(value = "all", required = false) List<Integer> allOf,
+            @RequestParam(value = "any", required = false) List<Integer> anyOf,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Integer userId = userContext.getCurrentUserId();
+        String etag = dataVersionService.etag(userId);
+        if (dataVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        List<LessonDto> lessons = lessonService.getLessonsByLabels(allOf, anyOf,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.atTime(LocalTime.MAX) : null,
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE)),
+                userId);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(lessons);
     }
 
     @PostMapping
@@ -56,6 +187,13 @@ public class LessonController {
         return ResponseEntity.ok(createdLesson);
     }
 
+    // Массовое создание уроков (например, расписание на семестр)
+    @PostMapping("/bulk")
+    public ResponseEntity<List<LessonDto>> createLessons(@RequestBody List<LessonDto> lessonDtos) {
+        List<LessonDto> createdLessons = lessonService.createLessons(lessonDtos, userContext.getCurrentUserId());
+        return ResponseEntity.ok(createdLessons);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<LessonDto> updateLesson(@PathVariable("id") Integer id, @RequestBody LessonDto lessonDto) {
         LessonDto updatedLesson = lessonService.updateLesson(id, lessonDto, userContext.getCurrentUserId());
@@ -68,7 +206,7 @@ public class LessonController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteLesson(@PathVariable("id") Integer id) {
-        boolean deleted = lessonService.deleteLesson(id);
+        boolean deleted = lessonService.deleteLesson(id, userContext.getCurrentUserId());
         if (deleted) {
             return ResponseEntity.ok().build();
         } else {
@@ -81,15 +219,15 @@ public class LessonController {
             @PathVariable("lessonId") Integer lessonId,
             @PathVariable("labelId") Integer labelId) {
         LessonDto updatedLesson = lessonService.addLabelToLesson(lessonId, labelId, userContext.getCurrentUserId());
-        return ResponseEntity.ok(updatedLesson);
+        return okOrNotFound(updatedLesson);
     }
 
     @DeleteMapping("/{lessonId}/labels/{labelId}")
     public ResponseEntity<LessonDto> removeLabelFromLesson(
             @PathVariable("lessonId") Integer lessonId,
             @PathVariable("labelId") Integer labelId) {
-        LessonDto updatedLesson = lessonService.removeLabelFromLesson(lessonId, labelId);
-        return ResponseEntity.ok(updatedLesson);
+        LessonDto updatedLesson = lessonService.removeLabelFromLesson(lessonId, labelId, userContext.getCurrentUserId());
+        return okOrNotFound(updatedLesson);
     }
 
     @PatchMapping("/{id}/status")
@@ -97,14 +235,14 @@ public class LessonController {
             @PathVariable("id") Integer id,
             @RequestBody Map<String, Boolean> statusUpdates) {
 
-        LessonDto lessonDto = new LessonDto();
-        lessonDto.setIsPaid(statusUpdates.getOrDefault("isPaid", false));
-        lessonDto.setRequiresPreparation(statusUpdates.getOrDefault("requiresPreparation", false));
-        lessonDto.setHomeworkSent(statusUpdates.getOrDefault("homeworkSent", false));
-        lessonDto.setIsTrial(statusUpdates.getOrDefault("isTrial", false));
-
-        LessonDto updatedLesson = lessonService.updateLesson(id, lessonDto, userContext.getCurrentUserId());
-        return ResponseEntity.ok(updatedLesson);
+        // Меняются только переданные флаги
+        LessonDto updatedLesson = lessonService.updateLessonStatus(id,
+                statusUpdates.get("isPaid"),
+                statusUpdates.get("requiresPreparation"),
+                statusUpdates.get("homeworkSent"),
+                statusUpdates.get("isTrial"),
+                userContext.getCurrentUserId());
+        return okOrNotFound(updatedLesson);
     }
 
     // Новый эндпоинт для быстрого обновления меток
@@ -113,10 +251,16 @@ public class LessonController {
             @PathVariable("id") Integer id,
             @RequestBody List<Integer> labelIds) {
 
-        LessonDto lessonDto = new LessonDto();
-        lessonDto.setLabelIds(labelIds);
+        LessonDto updatedLesson = lessonService.updateLessonLabels(id, labelIds, userContext.getCurrentUserId());
+        return okOrNotFound(updatedLesson);
+    }
 
-        LessonDto updatedLesson = lessonService.updateLesson(id, lessonDto, userContext.getCurrentUserId());
-        return ResponseEntity.ok(updatedLesson);
+    // null от сервиса - урока нет или он чужой
+    private static ResponseEntity<LessonDto> okOrNotFound(LessonDto lesson) {
+        if (lesson != null) {
+            return ResponseEntity.ok(lesson);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
     }
 }
\ No newline at end of file
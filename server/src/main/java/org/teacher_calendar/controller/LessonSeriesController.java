@@ -0,0 +1,86 @@
+package org.teacher_calendar.controller;
+
+import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.dto.LessonSeriesDto;
+import org.teacher_calendar.service.LessonSeriesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/series")
+@CrossOrigin(origins = "*")
+public class LessonSeriesController {
+
+    private final LessonSeriesService lessonSeriesService;
+    private final UserContext userContext;
+
+    @Autowired
+    public LessonSeriesController(LessonSeriesService lessonSeriesService, UserContext userContext) {
+        this.lessonSeriesService = lessonSeriesService;
+        this.userContext = userContext;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<LessonSeriesDto>> getAllSeries() {
+        List<LessonSeriesDto> series = lessonSeriesService.getAllSeries(userContext.getCurrentUserId());
+        return ResponseEntity.ok(series);
+    }
+
+    @PostMapping
+    public ResponseEntity<LessonSeriesDto> createSeries(@RequestBody LessonSeriesDto seriesDto) {
+        LessonSeriesDto createdSeries = lessonSeriesService.createSeries(seriesDto, userContext.getCurrentUserId());
+        return ResponseEntity.ok(createdSeries);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<LessonSeriesDto> updateSeries(@PathVariable("id") Integer id,
+                                                        @RequestBody LessonSeriesDto seriesDto) {
+        LessonSeriesDto updatedSeries = lessonSeriesService.updateSeries(id, seriesDto, userContext.getCurrentUserId());
+        if (updatedSeries != null) {
+            return ResponseEntity.ok(updatedSeries);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSeries(@PathVariable("id") Integer id) {
+        boolean deleted = lessonSeriesService.deleteSeries(id, userContext.getCurrentUserId());
+        if (deleted) {
+            return ResponseEntity.ok().build();
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Превратить вхождение в настоящий урок, чтобы его можно было редактировать через /api/lessons/{id}
+    @PostMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<LessonDto> materializeOccurrence(
+            @PathVariable("id") Integer id,
+            @PathVariable("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LessonDto lesson = lessonSeriesService.materializeOccurrence(id, date, userContext.getCurrentUserId());
+        if (lesson != null) {
+            return ResponseEntity.ok(lesson);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Отменить одно вхождение серии
+    @DeleteMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<Void> skipOccurrence(
+            @PathVariable("id") Integer id,
+            @PathVariable("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        boolean skipped = lessonSeriesService.skipOccurrence(id, date, userContext.getCurrentUserId());
+        if (skipped) {
+            return ResponseEntity.ok().build();
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.teacher_calendar.controller;
+
+import org.teacher_calendar.dto.DebtorDto;
+import org.teacher_calendar.dto.RevenueDto;
+import org.teacher_calendar.service.RevenueService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    private final RevenueService revenueService;
+    private final UserContext userContext;
+
+    @Autowired
+    public ReportController(RevenueService revenueService, UserContext userContext) {
+        this.revenueService = revenueService;
+        this.userContext = userContext;
+    }
+
+    // Выручка по месяцам: from/to - любые даты внутри первого и последнего месяца
+    @GetMapping("/revenue/monthly")
+    public ResponseEntity<List<RevenueDto>> getMonthlyRevenue(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(revenueService.getMonthlyRevenue(userContext.getCurrentUserId(), from, to));
+    }
+
+    // Выручка по клиентам за те же месяцы
+    @GetMapping("/revenue/clients")
+    public ResponseEntity<List<RevenueDto>> getClientRevenue(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(revenueService.getClientRevenue(userContext.getCurrentUserId(), from, to));
+    }
+
+    // Клиенты с долгом за прошедшие уроки, самые крупные долги первыми
+    @GetMapping("/debtors")
+    public ResponseEntity<List<DebtorDto>> getDebtors() {
+        return ResponseEntity.ok(revenueService.getDebtors(userContext.getCurrentUserId()));
+    }
+
+    // Пересобрать агрегаты из уроков (если разошлись)
+    @PostMapping("/revenue/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRevenue() {
+        int rows = revenueService.rebuild(userContext.getCurrentUserId());
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+}
@@ -12,10 +12,13 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class SettingsController {
 
+    @Autowired
+    private UserContext userContext;
+
     @GetMapping
     public ResponseEntity<Map<String, String>> getSettings() {
         Map<String, String> settings = new HashMap<>();
-        settings.put("timezone", "Europe/Moscow");
+        settings.put("timezone", userContext.getCurrentUser().timezone());
         settings.put("backupRetentionDays", "14");
         settings.put("backupPath", "./backups");
         return ResponseEntity.ok(settings);
@@ -1,12 +1,27 @@
 package org.teacher_calendar.controller;
 
+import org.teacher_calendar.service.UserCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.annotation.RequestScope;
 
+/**
+ * Текущий репетитор запроса. id заполняет TokenAuthenticationFilter по токену
+ * из заголовка Authorization; запись пользователя берётся из UserCache один раз
+ * за запрос, при первом обращении.
+ */
 @Component
 @RequestScope
 public class UserContext {
-    private Integer currentUserId = 1; // Временно используем ID 1 для тестирования
+    private final UserCache userCache;
+
+    private Integer currentUserId; // null - запрос без действительного токена
+    private UserCache.CachedUser currentUser;
+
+    @Autowired
+    public UserContext(UserCache userCache) {
+        this.userCache = userCache;
+    }
 
     public Integer getCurrentUserId() {
         return currentUserId;
@@ -14,5 +29,13 @@ public class UserContext {
 
     public void setCurrentUserId(Integer currentUserId) {
         this.currentUserId = currentUserId;
+        this.currentUser = null;
+    }
+
+    public UserCache.CachedUser getCurrentUser() {
+        if (currentUser == null) {
+            currentUser = userCache.require(currentUserId);
+        }
+        return currentUser;
     }
-}
\ No newline at end of file
+}
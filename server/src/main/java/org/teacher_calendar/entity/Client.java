@@ -5,7 +5,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "clients")
+@Table(name = "clients", indexes = {
+        @Index(name = "idx_clients_user_name", columnList = "user_id, name")
+})
 public class Client {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
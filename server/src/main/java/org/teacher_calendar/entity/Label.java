@@ -5,7 +5,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "labels")
+@Table(name = "labels", indexes = {
+        @Index(name = "idx_labels_user_name", columnList = "user_id, name")
+})
 public class Label {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
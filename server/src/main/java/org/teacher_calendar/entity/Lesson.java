@@ -1,15 +1,24 @@
 package org.teacher_calendar.entity;
 
 import jakarta.persistence.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "lessons")
+@Table(name = "lessons", indexes = {
+        @Index(name = "idx_lessons_user_date", columnList = "user_id, date_time, id"),
+        @Index(name = "idx_lessons_client_date", columnList = "client_id, date_time")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_lessons_series_occurrence", columnNames = {"series_id", "series_occurrence_date"})
+})
 public class Lesson {
+    // Последовательность с pooled-оптимизатором: id выдаются блоками по 50,
+    // поэтому Hibernate может объединять INSERT'ы в JDBC-батчи (с IDENTITY это невозможно)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lessons_seq")
+    @SequenceGenerator(name = "lessons_seq", sequenceName = "lessons_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false)
@@ -50,11 +59,21 @@ public class Lesson {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Серия, вхождением которой является урок (null - обычный разовый урок)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id")
+    private LessonSeries series;
+
+    // Исходная дата вхождения серии (урок могли перенести, а слот серии остаётся занят)
+    @Column(name = "series_occurrence_date")
+    private LocalDate seriesOccurrenceDate;
+
     @ManyToMany
     @JoinTable(
             name = "lesson_labels",
             joinColumns = @JoinColumn(name = "lesson_id"),
-            inverseJoinColumns = @JoinColumn(name = "label_id")
+            inverseJoinColumns = @JoinColumn(name = "label_id"),
+            indexes = @Index(name = "idx_lesson_labels_label", columnList = "label_id, lesson_id")
     )
     private List<Label> labels = new ArrayList<>();
 
@@ -102,6 +121,12 @@ public class Lesson {
     public Boolean getIsTrial() { return isTrial; }
     public void setIsTrial(Boolean trial) { isTrial = trial; }
 
+    public LessonSeries getSeries() { return series; }
+    public void setSeries(LessonSeries series) { this.series = series; }
+
+    public LocalDate getSeriesOccurrenceDate() { return seriesOccurrenceDate; }
+    public void setSeriesOccurrenceDate(LocalDate seriesOccurrenceDate) { this.seriesOccurrenceDate = seriesOccurrenceDate; }
+
     public List<Label> getLabels() { return labels; }
     public void setLabels(List<Label> labels) { this.labels = labels; }
 
@@ -0,0 +1,97 @@
+package org.teacher_calendar.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Повторяющееся занятие: одно правило вместо строки на каждое вхождение.
+ * Вхождения разворачиваются на лету при чтении недели; реальная строка Lesson
+ * появляется только когда вхождение редактируют, отмечают оплату или метки.
+ */
+@Entity
+@Table(name = "lesson_series", indexes = {
+        @Index(name = "idx_lesson_series_user_start", columnList = "user_id, start_date_time")
+})
+public class LessonSeries {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // Первое вхождение серии
+    @Column(name = "start_date_time", nullable = false)
+    private LocalDateTime startDateTime;
+
+    @Column(name = "duration_minutes", nullable = false)
+    private Integer durationMinutes = 60;
+
+    // Шаг повторения в днях: 7 - еженедельно, 14 - раз в две недели, любой другой - свой интервал
+    @Column(name = "interval_days", nullable = false)
+    private Integer intervalDays = 7;
+
+    // Последний день серии (включительно); null - без окончания
+    @Column(name = "until_date")
+    private LocalDate untilDate;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(name = "tutor_timezone")
+    private String tutorTimezone;
+
+    @Column(name = "client_timezone")
+    private String clientTimezone;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "client_id", nullable = false)
+    private Client client;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Отменённые вхождения (даты, на которые занятия не будет)
+    @ElementCollection
+    @CollectionTable(name = "lesson_series_exceptions", joinColumns = @JoinColumn(name = "series_id"))
+    @Column(name = "occurrence_date", nullable = false)
+    private Set<LocalDate> skippedDates = new HashSet<>();
+
+    // Конструкторы
+    public LessonSeries() {}
+
+    // Геттеры и сеттеры
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public LocalDateTime getStartDateTime() { return startDateTime; }
+    public void setStartDateTime(LocalDateTime startDateTime) { this.startDateTime = startDateTime; }
+
+    public Integer getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(Integer durationMinutes) { this.durationMinutes = durationMinutes; }
+
+    public Integer getIntervalDays() { return intervalDays; }
+    public void setIntervalDays(Integer intervalDays) { this.intervalDays = intervalDays; }
+
+    public LocalDate getUntilDate() { return untilDate; }
+    public void setUntilDate(LocalDate untilDate) { this.untilDate = untilDate; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getTutorTimezone() { return tutorTimezone; }
+    public void setTutorTimezone(String tutorTimezone) { this.tutorTimezone = tutorTimezone; }
+
+    public String getClientTimezone() { return clientTimezone; }
+    public void setClientTimezone(String clientTimezone) { this.clientTimezone = clientTimezone; }
+
+    public Client getClient() { return client; }
+    public void setClient(Client client) { this.client = client; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public Set<LocalDate> getSkippedDates() { return skippedDates; }
+    public void setSkippedDates(Set<LocalDate> skippedDates) { this.skippedDates = skippedDates; }
+}
@@ -1,21 +1,41 @@
 package org.teacher_calendar.repository;
 
 import org.teacher_calendar.entity.Client;
-import org.teacher_calendar.entity.User;
+import org.teacher_calendar.repository.projection.ClientStatsRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Integer> {
 
-    // Spring Data JPA автоматически реализует этот метод
-    List<Client> findByNameContainingIgnoreCase(String name);
-
     // Найдем клиентов по городу
     List<Client> findByCity(String city);
 
     // Найдем клиентов пользователя
-    List<Client> findByUser(User user);
+    List<Client> findByUserId(Integer userId);
+
+    // Клиент только своего репетитора: чужой клиент не отличается от несуществующего
+    Optional<Client> findByIdAndUserId(Integer id, Integer userId);
+
+    boolean existsByIdAndUserId(Integer id, Integer userId);
+
+    // Клиенты пользователя с агрегатами по урокам одним GROUP BY: уроки идут по idx_lessons_client_date,
+    // неоплаченным считается прошедший урок с is_paid = false (или NULL)
+    @Query("SELECT new org.teacher_calendar.repository.projection.ClientStatsRow(" +
+            "c.id, c.name, c.phone, c.timezone, c.city, c.description, c.lessonPrice, " +
+            "COUNT(l.id), " +
+            "MAX(CASE WHEN l.dateTime < :now THEN l.dateTime END), " +
+            "MIN(CASE WHEN l.dateTime >= :now THEN l.dateTime END), " +
+            "SUM(CASE WHEN l.dateTime < :now AND COALESCE(l.isPaid, false) = false THEN 1 ELSE 0 END)) " +
+            "FROM Client c LEFT JOIN c.lessons l " +
+            "WHERE c.user.id = :userId " +
+            "GROUP BY c.id, c.name, c.phone, c.timezone, c.city, c.description, c.lessonPrice " +
+            "ORDER BY c.name, c.id")
+    List<ClientStatsRow> findStatsByUserId(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -3,13 +3,23 @@ package org.teacher_calendar.repository;
 import org.teacher_calendar.entity.Label;
 import org.teacher_calendar.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LabelRepository extends JpaRepository<Label, Integer> {
     List<Label> findByUser(User user);
     List<Label> findByUserId(Integer userId);
     boolean existsByNameAndUserId(String name, Integer userId);
+
+    // Метка только своего репетитора: чужая метка не отличается от несуществующей
+    Optional<Label> findByIdAndUserId(Integer id, Integer userId);
+
+    // Только id меток пользователя (словарь битового индекса)
+    @Query("SELECT lb.id FROM Label lb WHERE lb.user.id = :userId ORDER BY lb.id")
+    List<Integer> findIdsByUserId(@Param("userId") Integer userId);
 }
\ No newline at end of file
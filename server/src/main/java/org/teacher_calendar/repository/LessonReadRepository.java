@@ -0,0 +1,106 @@
+package org.teacher_calendar.repository;
+
+import org.teacher_calendar.entity.Lesson;
+import org.teacher_calendar.repository.projection.LessonLabelRow;
+import org.teacher_calendar.repository.projection.LessonRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Чтение уроков для календаря проекциями: запросы выбирают только нужные колонки
+ * в record'ы, сущности Lesson/Client/Label не создаются и не попадают в контекст персистентности.
+ * Метки выбираются отдельным запросом с тем же условием, что и уроки.
+ */
+public interface LessonReadRepository extends Repository<Lesson, Integer> {
+
+    String SELECT_LESSON_ROW = "SELECT new org.teacher_calendar.repository.projection.LessonRow(" +
+            "l.id, l.dateTime, l.endTime, l.durationMinutes, l.description, " +
+            "l.isPaid, l.requiresPreparation, l.homeworkSent, l.isTrial, " +
+            "l.tutorTimezone, l.clientTimezone, s.id, l.seriesOccurrenceDate, " +
+            "c.id, c.name, c.phone, c.timezone, c.city, c.description, c.lessonPrice) " +
+            "FROM Lesson l JOIN l.client c LEFT JOIN l.series s ";
+
+    String SELECT_LABEL_ROW = "SELECT new org.teacher_calendar.repository.projection.LessonLabelRow(" +
+            "l.id, lb.id, lb.name, lb.color, lb.emoji) " +
+            "FROM Lesson l JOIN l.labels lb ";
+
+    // Один урок (ответ на частичное обновление)
+    @Query(SELECT_LESSON_ROW + "WHERE l.id = :lessonId")
+    Optional<LessonRow> findLessonRow(@Param("lessonId") Integer lessonId);
+
+    @Query(SELECT_LABEL_ROW + "WHERE l.id = :lessonId")
+    List<LessonLabelRow> findLessonLabelRows(@Param("lessonId") Integer lessonId);
+
+    // Уроки по списку id (результат фильтра по меткам)
+    @Query(SELECT_LESSON_ROW + "WHERE l.id IN :lessonIds ORDER BY l.dateTime, l.id")
+    List<LessonRow> findRowsByIds(@Param("lessonIds") Collection<Integer> lessonIds);
+
+    @Query(SELECT_LABEL_ROW + "WHERE l.id IN :lessonIds")
+    List<LessonLabelRow> findLabelRowsByIds(@Param("lessonIds") Collection<Integer> lessonIds);
+
+    // Уроки недели пользователя
+    @Query(SELECT_LESSON_ROW +
+            "WHERE l.user.id = :userId AND l.dateTime BETWEEN :startOfWeek AND :endOfWeek " +
+            "ORDER BY l.dateTime, l.id")
+    List<LessonRow> findWeekRows(@Param("userId") Integer userId,
+                                 @Param("startOfWeek") LocalDateTime startOfWeek,
+                                 @Param("endOfWeek") LocalDateTime endOfWeek);
+
+    @Query(SELECT_LABEL_ROW +
+            "WHERE l.user.id = :userId AND l.dateTime BETWEEN :startOfWeek AND :endOfWeek")
+    List<LessonLabelRow> findWeekLabelRows(@Param("userId") Integer userId,
+                                           @Param("startOfWeek") LocalDateTime startOfWeek,
+                                           @Param("endOfWeek") LocalDateTime endOfWeek);
+
+    // Уроки клиента
+    @Query(SELECT_LESSON_ROW + "WHERE c.id = :clientId ORDER BY l.dateTime, l.id")
+    List<LessonRow> findClientRows(@Param("clientId") Integer clientId);
+
+    @Query(SELECT_LABEL_ROW + "WHERE l.client.id = :clientId")
+    List<LessonLabelRow> findClientLabelRows(@Param("clientId") Integer clientId);
+
+    // Уроки с меткой в [from, to]: первая страница (keyset по (dateTime, id)), идёт от lesson_labels по label_id
+    @Query(SELECT_LESSON_ROW + "JOIN l.labels x " +
+            "WHERE x.id = :labelId AND l.dateTime BETWEEN :from AND :to " +
+            "ORDER BY l.dateTime, l.id")
+    List<LessonRow> findLabelPage(@Param("labelId") Integer labelId,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  Pageable pageable);
+
+    // Следующая страница: всё, что строго после (afterDateTime, afterId)
+    @Query(SELECT_LESSON_ROW + "JOIN l.labels x " +
+            "WHERE x.id = :labelId AND l.dateTime BETWEEN :from AND :to " +
+            "AND (l.dateTime > :afterDateTime OR (l.dateTime = :afterDateTime AND l.id > :afterId)) " +
+            "ORDER BY l.dateTime, l.id")
+    List<LessonRow> findLabelPageAfter(@Param("labelId") Integer labelId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("afterDateTime") LocalDateTime afterDateTime,
+                                       @Param("afterId") Integer afterId,
+                                       Pageable pageable);
+
+    // Прошедшие неоплаченные уроки репетитора: диапазон idx_lessons_user_paid_date, оплаченные не читаются
+    @Query(SELECT_LESSON_ROW +
+            "WHERE l.user.id = :userId AND l.isPaid = false AND l.dateTime < :now " +
+            "ORDER BY l.dateTime, l.id")
+    List<LessonRow> findUnpaidRows(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
+
+    @Query(SELECT_LABEL_ROW +
+            "WHERE l.user.id = :userId AND l.isPaid = false AND l.dateTime < :now")
+    List<LessonLabelRow> findUnpaidLabelRows(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
+
+    // Сколько всего уроков с меткой в [from, to] - считает БД, без выборки строк
+    @Query("SELECT COUNT(l) FROM Lesson l JOIN l.labels x " +
+            "WHERE x.id = :labelId AND l.dateTime BETWEEN :from AND :to")
+    long countLabelLessons(@Param("labelId") Integer labelId,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to);
+}
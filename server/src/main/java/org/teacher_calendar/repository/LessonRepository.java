@@ -1,14 +1,22 @@
 package org.teacher_calendar.repository;
 
 import org.teacher_calendar.entity.Lesson;
-import org.teacher_calendar.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.hibernate.jpa.HibernateHints;
+import jakarta.persistence.QueryHint;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, Integer> {
@@ -19,16 +27,95 @@ public interface LessonRepository extends JpaRepository<Lesson, Integer> {
     // Найти уроки в определенном временном диапазоне
     List<Lesson> findByDateTimeBetween(LocalDateTime start, LocalDateTime end);
 
-    // Найти неоплаченные уроки
-    List<Lesson> findByIsPaidFalse();
-
     // Найти уроки пользователя
-    List<Lesson> findByUser(User user);
+    List<Lesson> findByUserId(Integer userId);
 
     // Кастомный запрос для поиска уроков по неделе для конкретного пользователя
-    @Query("SELECT l FROM Lesson l WHERE l.user = :user AND l.dateTime BETWEEN :startOfWeek AND :endOfWeek ORDER BY l.dateTime")
+    @Query("SELECT l FROM Lesson l WHERE l.user.id = :userId AND l.dateTime BETWEEN :startOfWeek AND :endOfWeek ORDER BY l.dateTime")
     List<Lesson> findLessonsForWeek(@Param("startOfWeek") LocalDateTime startOfWeek,
                                     @Param("endOfWeek") LocalDateTime endOfWeek,
-                                    @Param("user") User user);
-}
+                                    @Param("userId") Integer userId);
+
+    // Первая страница истории занятий (keyset по (dateTime, id))
+    @Query("SELECT l FROM Lesson l JOIN FETCH l.client " +
+            "WHERE l.user.id = :userId " +
+            "ORDER BY l.dateTime, l.id")
+    List<Lesson> findPageForUser(@Param("userId") Integer userId, Pageable pageable);
+
+    // Следующая страница: всё, что строго после (afterDateTime, afterId)
+    @Query("SELECT l FROM Lesson l JOIN FETCH l.client " +
+            "WHERE l.user.id = :userId " +
+            "AND (l.dateTime > :afterDateTime OR (l.dateTime = :afterDateTime AND l.id > :afterId)) " +
+            "ORDER BY l.dateTime, l.id")
+    List<Lesson> findPageForUserAfter(@Param("userId") Integer userId,
+                                      @Param("afterDateTime") LocalDateTime afterDateTime,
+                                      @Param("afterId") Integer afterId,
+                                      Pageable pageable);
+
+    // Вся история пользователя потоком (для выгрузки), без материализации списка
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT l FROM Lesson l JOIN FETCH l.client " +
+            "WHERE l.user.id = :userId " +
+            "ORDER BY l.dateTime, l.id")
+    Stream<Lesson> streamAllForUser(@Param("userId") Integer userId);
+
+    // Догружает метки для уже выбранной страницы одним запросом
+    @Query("SELECT DISTINCT l FROM Lesson l LEFT JOIN FETCH l.labels WHERE l IN :lessons")
+    List<Lesson> fetchLabels(@Param("lessons") List<Lesson> lessons);
+
+    // Уже материализованные вхождения серий в диапазоне дат: пары [seriesId, occurrenceDate]
+    @Query("SELECT l.series.id, l.seriesOccurrenceDate FROM Lesson l " +
+            "WHERE l.series.id IN :seriesIds AND l.seriesOccurrenceDate BETWEEN :fromDate AND :toDate")
+    List<Object[]> findMaterializedOccurrences(@Param("seriesIds") Collection<Integer> seriesIds,
+                                               @Param("fromDate") LocalDate fromDate,
+                                               @Param("toDate") LocalDate toDate);
+
+    // Урок, в который превратилось конкретное вхождение серии
+    Optional<Lesson> findBySeriesIdAndSeriesOccurrenceDate(Integer seriesId, LocalDate seriesOccurrenceDate);
 
+    // Урок только своего репетитора: чужой урок не отличается от несуществующего
+    Optional<Lesson> findByIdAndUserId(Integer id, Integer userId);
+
+    boolean existsByIdAndUserId(Integer id, Integer userId);
+
+    // Флаги урока одним UPDATE: null - флаг остаётся прежним
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Lesson l SET " +
+            "l.isPaid = COALESCE(:isPaid, l.isPaid), " +
+            "l.requiresPreparation = COALESCE(:requiresPreparation, l.requiresPreparation), " +
+            "l.homeworkSent = COALESCE(:homeworkSent, l.homeworkSent), " +
+            "l.isTrial = COALESCE(:isTrial, l.isTrial) " +
+            "WHERE l.id = :id AND l.user.id = :userId")
+    int updateStatus(@Param("id") Integer id,
+                     @Param("userId") Integer userId,
+                     @Param("isPaid") Boolean isPaid,
+                     @Param("requiresPreparation") Boolean requiresPreparation,
+                     @Param("homeworkSent") Boolean homeworkSent,
+                     @Param("isTrial") Boolean isTrial);
+
+    // Метки урока напрямую из lesson_labels, без загрузки урока и меток
+    @Query(value = "SELECT label_id FROM lesson_labels WHERE lesson_id = :lessonId", nativeQuery = true)
+    List<Integer> findLabelIdsByLessonId(@Param("lessonId") Integer lessonId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM lesson_labels WHERE lesson_id = :lessonId AND label_id IN (:labelIds)",
+            nativeQuery = true)
+    int removeLabels(@Param("lessonId") Integer lessonId, @Param("labelIds") Collection<Integer> labelIds);
+
+    // Добавляются только метки пользователя: чужие id отбрасываются тем же запросом
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO lesson_labels (lesson_id, label_id) " +
+            "SELECT CAST(:lessonId AS INTEGER), id FROM labels WHERE id IN (:labelIds) AND user_id = :userId",
+            nativeQuery = true)
+    int addLabels(@Param("lessonId") Integer lessonId,
+                  @Param("labelIds") Collection<Integer> labelIds,
+                  @Param("userId") Integer userId);
+
+    // Все пары (урок, метка) пользователя для битового индекса меток: [lessonId, labelId]
+    @Query("SELECT l.id, lb.id FROM Lesson l JOIN l.labels lb WHERE l.user.id = :userId")
+    List<Object[]> findLabelPairsByUserId(@Param("userId") Integer userId);
+
+    // Интервалы всех уроков пользователя для индекса занятости: [id, dateTime, endTime, durationMinutes]
+    @Query("SELECT l.id, l.dateTime, l.endTime, l.durationMinutes FROM Lesson l WHERE l.user.id = :userId")
+    List<Object[]> findIntervalsByUserId(@Param("userId") Integer userId);
+}
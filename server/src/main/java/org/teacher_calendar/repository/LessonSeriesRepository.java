@@ -0,0 +1,56 @@
+package org.teacher_calendar.repository;
+
+import org.teacher_calendar.entity.LessonSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LessonSeriesRepository extends JpaRepository<LessonSeries, Integer> {
+
+    // Все серии пользователя вместе с клиентом и отменёнными вхождениями
+    @Query("SELECT DISTINCT s FROM LessonSeries s " +
+            "JOIN FETCH s.client " +
+            "LEFT JOIN FETCH s.skippedDates " +
+            "WHERE s.user.id = :userId " +
+            "ORDER BY s.startDateTime")
+    List<LessonSeries> findByUserIdWithDetails(@Param("userId") Integer userId);
+
+    // Серия только своего репетитора; чужая - как несуществующая
+    Optional<LessonSeries> findByIdAndUserId(Integer id, Integer userId);
+
+    // Серии, у которых могут быть вхождения в диапазоне [.., to] с окончанием не раньше fromDate
+    @Query("SELECT s FROM LessonSeries s JOIN FETCH s.client " +
+            "WHERE s.user.id = :userId AND s.startDateTime <= :to " +
+            "AND (s.untilDate IS NULL OR s.untilDate >= :fromDate)")
+    List<LessonSeries> findActiveInRange(@Param("userId") Integer userId,
+                                         @Param("fromDate") LocalDate fromDate,
+                                         @Param("to") LocalDateTime to);
+
+    // Отменённые вхождения только в нужном диапазоне дат: пары [seriesId, occurrenceDate]
+    @Query("SELECT s.id, d FROM LessonSeries s JOIN s.skippedDates d " +
+            "WHERE s.id IN :seriesIds AND d BETWEEN :fromDate AND :toDate")
+    List<Object[]> findSkippedDatesInRange(@Param("seriesIds") Collection<Integer> seriesIds,
+                                           @Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate);
+
+    // Отменено ли одно вхождение - без загрузки всей коллекции skippedDates
+    @Query("SELECT COUNT(d) > 0 FROM LessonSeries s JOIN s.skippedDates d " +
+            "WHERE s.id = :seriesId AND d = :occurrenceDate")
+    boolean isSkipped(@Param("seriesId") Integer seriesId, @Param("occurrenceDate") LocalDate occurrenceDate);
+
+    // Отменить вхождение одной строкой lesson_series_exceptions; повторная отмена ничего не меняет
+    @Modifying
+    @Query(value = "MERGE INTO lesson_series_exceptions (series_id, occurrence_date) " +
+            "KEY (series_id, occurrence_date) VALUES (:seriesId, :occurrenceDate)",
+            nativeQuery = true)
+    int addSkippedDate(@Param("seriesId") Integer seriesId, @Param("occurrenceDate") LocalDate occurrenceDate);
+}
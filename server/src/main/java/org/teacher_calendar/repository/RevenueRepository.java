@@ -0,0 +1,127 @@
+package org.teacher_calendar.repository;
+
+import org.teacher_calendar.entity.Lesson;
+import org.teacher_calendar.repository.projection.RevenueContribution;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Таблица revenue_months и счётчик clients.unpaid_lessons: приращения при записи уроков,
+ * пересчёт по стоимости занятия, пересборка из lessons и отчёты. Отчёты читают только
+ * агрегаты - их стоимость зависит от числа месяцев и клиентов, а не от числа уроков.
+ */
+public interface RevenueRepository extends Repository<Lesson, Integer> {
+
+    // Вклад урока до изменения флага оплаты одним UPDATE
+    @Query("SELECT new org.teacher_calendar.repository.projection.RevenueContribution(" +
+            "l.user.id, c.id, l.dateTime, l.durationMinutes, l.isPaid, c.lessonPrice) " +
+            "FROM Lesson l JOIN l.client c WHERE l.id = :lessonId AND l.user.id = :userId")
+    Optional<RevenueContribution> findContribution(@Param("lessonId") Integer lessonId,
+                                                   @Param("userId") Integer userId);
+
+    // Прибавить к строке (user, client, month) приращения; строки нет - создать.
+    // earned/paid считаются заново от новых счётчиков и текущей стоимости
+    @Modifying
+    @Query(value = "MERGE INTO revenue_months r " +
+            "USING (SELECT CAST(:userId AS INTEGER) AS user_id, CAST(:clientId AS INTEGER) AS client_id, " +
+            "CAST(:month AS DATE) AS month_start) s " +
+            "ON r.user_id = s.user_id AND r.month_start = s.month_start AND r.client_id = s.client_id " +
+            "WHEN MATCHED THEN UPDATE SET " +
+            "lesson_count = r.lesson_count + :lessons, " +
+            "minutes = r.minutes + :minutes, " +
+            "paid_count = r.paid_count + :paidLessons, " +
+            "earned = (r.lesson_count + :lessons) * :price, " +
+            "paid = (r.paid_count + :paidLessons) * :price " +
+            "WHEN NOT MATCHED THEN INSERT " +
+            "(user_id, client_id, month_start, lesson_count, minutes, paid_count, earned, paid) " +
+            "VALUES (s.user_id, s.client_id, s.month_start, :lessons, :minutes, :paidLessons, " +
+            ":lessons * :price, :paidLessons * :price)",
+            nativeQuery = true)
+    int addDelta(@Param("userId") Integer userId,
+                 @Param("clientId") Integer clientId,
+                 @Param("month") LocalDate month,
+                 @Param("lessons") int lessons,
+                 @Param("minutes") long minutes,
+                 @Param("paidLessons") int paidLessons,
+                 @Param("price") double price);
+
+    // Долг клиента в уроках
+    @Modifying
+    @Query(value = "UPDATE clients SET unpaid_lessons = unpaid_lessons + :delta WHERE id = :clientId",
+            nativeQuery = true)
+    int addUnpaid(@Param("clientId") Integer clientId, @Param("delta") int delta);
+
+    // Новая стоимость занятия клиента: пересчитать все его месяцы
+    @Modifying
+    @Query(value = "UPDATE revenue_months SET earned = lesson_count * :price, paid = paid_count * :price " +
+            "WHERE client_id = :clientId",
+            nativeQuery = true)
+    int reprice(@Param("clientId") Integer clientId, @Param("price") double price);
+
+    @Modifying
+    @Query(value = "DELETE FROM revenue_months WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUserId(@Param("userId") Integer userId);
+
+    // Пересборка из lessons одним INSERT ... SELECT GROUP BY
+    @Modifying
+    @Query(value = "INSERT INTO revenue_months " +
+            "(user_id, client_id, month_start, lesson_count, minutes, paid_count, earned, paid) " +
+            "SELECT l.user_id, l.client_id, CAST(DATE_TRUNC('MONTH', l.date_time) AS DATE), " +
+            "COUNT(*), SUM(COALESCE(l.duration_minutes, 0)), " +
+            "SUM(CASE WHEN l.is_paid THEN 1 ELSE 0 END), " +
+            "COUNT(*) * COALESCE(c.lesson_price, 0), " +
+            "SUM(CASE WHEN l.is_paid THEN 1 ELSE 0 END) * COALESCE(c.lesson_price, 0) " +
+            "FROM lessons l JOIN clients c ON c.id = l.client_id " +
+            "WHERE l.user_id = :userId AND l.date_time IS NOT NULL " +
+            "GROUP BY l.user_id, l.client_id, CAST(DATE_TRUNC('MONTH', l.date_time) AS DATE), c.lesson_price",
+            nativeQuery = true)
+    int insertFromLessons(@Param("userId") Integer userId);
+
+    @Modifying
+    @Query(value = "UPDATE clients c SET unpaid_lessons = (" +
+            "SELECT COUNT(*) FROM lessons l " +
+            "WHERE l.client_id = c.id AND l.is_paid = FALSE AND l.date_time IS NOT NULL) " +
+            "WHERE c.user_id = :userId",
+            nativeQuery = true)
+    int recountUnpaid(@Param("userId") Integer userId);
+
+    // Клиенты с неоплаченными уроками: [client_id, name, lesson_price, unpaid_lessons]
+    @Query(value = "SELECT id, name, lesson_price, unpaid_lessons FROM clients " +
+            "WHERE user_id = :userId AND unpaid_lessons > 0",
+            nativeQuery = true)
+    List<Object[]> findUnpaidClients(@Param("userId") Integer userId);
+
+    // Неоплаченные уроки, которые ещё не прошли, по клиентам: [client_id, count].
+    // Диапазон idx_lessons_user_paid_date после now - ни оплаченных, ни прошедших строк
+    @Query("SELECT l.client.id, COUNT(l) FROM Lesson l " +
+            "WHERE l.user.id = :userId AND l.isPaid = false AND l.dateTime >= :now " +
+            "GROUP BY l.client.id")
+    List<Object[]> countUpcomingUnpaid(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
+
+    // По месяцам: [month_start, lessons, minutes, earned, paid]
+    @Query(value = "SELECT month_start, SUM(lesson_count), SUM(minutes), SUM(earned), SUM(paid) " +
+            "FROM revenue_months " +
+            "WHERE user_id = :userId AND month_start BETWEEN :fromMonth AND :toMonth AND lesson_count > 0 " +
+            "GROUP BY month_start ORDER BY month_start",
+            nativeQuery = true)
+    List<Object[]> sumByMonth(@Param("userId") Integer userId,
+                              @Param("fromMonth") LocalDate fromMonth,
+                              @Param("toMonth") LocalDate toMonth);
+
+    // По клиентам: [client_id, name, lessons, minutes, earned, paid]
+    @Query(value = "SELECT r.client_id, c.name, SUM(r.lesson_count), SUM(r.minutes), SUM(r.earned), SUM(r.paid) " +
+            "FROM revenue_months r JOIN clients c ON c.id = r.client_id " +
+            "WHERE r.user_id = :userId AND r.month_start BETWEEN :fromMonth AND :toMonth AND r.lesson_count > 0 " +
+            "GROUP BY r.client_id, c.name ORDER BY c.name, r.client_id",
+            nativeQuery = true)
+    List<Object[]> sumByClient(@Param("userId") Integer userId,
+                               @Param("fromMonth") LocalDate fromMonth,
+                               @Param("toMonth") LocalDate toMonth);
+}
@@ -0,0 +1,21 @@
+package org.teacher_calendar.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Клиент вместе с агрегатами по его урокам: одна строка GROUP BY на клиента.
+ * У клиента без уроков счётчики 0, даты - null.
+ */
+public record ClientStatsRow(
+        Integer clientId,
+        String name,
+        String phone,
+        String timezone,
+        String city,
+        String description,
+        Double lessonPrice,
+        Long lessonCount,
+        LocalDateTime lastLessonAt,
+        LocalDateTime nextLessonAt,
+        Long unpaidCount) {
+}
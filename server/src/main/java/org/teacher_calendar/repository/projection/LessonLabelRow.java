@@ -0,0 +1,12 @@
+package org.teacher_calendar.repository.projection;
+
+/**
+ * Метка урока для календаря: пара (урок, метка) из lesson_labels с полями метки.
+ */
+public record LessonLabelRow(
+        Integer lessonId,
+        Integer labelId,
+        String name,
+        String color,
+        String emoji) {
+}
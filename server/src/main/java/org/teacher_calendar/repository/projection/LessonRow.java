@@ -0,0 +1,31 @@
+package org.teacher_calendar.repository.projection;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Строка урока для календаря: только колонки, которые попадают в LessonDto,
+ * вместе с полями клиента. Выбирается конструктором в JPQL, без сущностей.
+ */
+public record LessonRow(
+        Integer id,
+        LocalDateTime dateTime,
+        LocalDateTime endTime,
+        Integer durationMinutes,
+        String description,
+        Boolean isPaid,
+        Boolean requiresPreparation,
+        Boolean homeworkSent,
+        Boolean isTrial,
+        String tutorTimezone,
+        String clientTimezone,
+        Integer seriesId,
+        LocalDate seriesOccurrenceDate,
+        Integer clientId,
+        String clientName,
+        String clientPhone,
+        String clientOwnTimezone,
+        String clientCity,
+        String clientDescription,
+        Double clientLessonPrice) {
+}
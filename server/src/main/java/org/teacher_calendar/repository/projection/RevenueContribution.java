@@ -0,0 +1,46 @@
+package org.teacher_calendar.repository.projection;
+
+import org.teacher_calendar.entity.Lesson;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Вклад одного урока в строку revenue_months: чей урок, какого клиента, в каком месяце,
+ * сколько минут и оплачен ли. Урок без даты ни в какой месяц не попадает.
+ */
+public record RevenueContribution(
+        Integer userId,
+        Integer clientId,
+        LocalDateTime dateTime,
+        Integer durationMinutes,
+        Boolean isPaid,
+        Double lessonPrice) {
+
+    public static RevenueContribution of(Lesson lesson) {
+        return new RevenueContribution(
+                lesson.getUser().getId(),
+                lesson.getClient().getId(),
+                lesson.getDateTime(),
+                lesson.getDurationMinutes(),
+                lesson.getIsPaid(),
+                lesson.getClient().getLessonPrice());
+    }
+
+    public RevenueContribution withPaid(Boolean paid) {
+        return new RevenueContribution(userId, clientId, dateTime, durationMinutes, paid, lessonPrice);
+    }
+
+    // Первое число месяца урока; null - урок без даты
+    public LocalDate month() {
+        return dateTime != null ? dateTime.toLocalDate().withDayOfMonth(1) : null;
+    }
+
+    public int minutes() {
+        return durationMinutes != null ? durationMinutes : 0;
+    }
+
+    public boolean paid() {
+        return Boolean.TRUE.equals(isPaid);
+    }
+}
@@ -0,0 +1,11 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.dto.ChangeEventDto;
+
+/**
+ * Изменение данных репетитора для подписчиков /api/events/stream.
+ * Публикуется сервисами через ApplicationEventPublisher внутри транзакции,
+ * CalendarEventHub рассылает его только после коммита.
+ */
+public record CalendarChangeEvent(Integer userId, ChangeEventDto change) {
+}
@@ -0,0 +1,236 @@
+package org.teacher_calendar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.teacher_calendar.dto.ChangeEventDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Рассылка изменений репетитора открытым SSE-потокам (календарь на ноутбуке и телефоне).
+ *
+ * Публикующий поток (коммит транзакции) только кладёт событие в ограниченную очередь
+ * каждого подписчика и никогда не ждёт сеть. Событие сериализуется в JSON один раз, до рассылки:
+ * всем подписчикам уходит одна и та же строка. Отправкой занимается поток пула, пока очередь
+ * подписчика не опустеет. Пул фиксированный (events.sse.sender-threads), на подписчика - не больше
+ * одной задачи, так что очередь пула ограничена числом подписчиков. Потоки платформенные:
+ * ResponseBodyEmitter.send synchronized, и медленная запись закрепила бы носитель виртуального
+ * потока. Если очередь переполнена, подписчик отстал: очередь сбрасывается, ему уходит последнее
+ * событие resync и поток закрывается - клиент переподключается и перечитывает данные.
+ */
+@Component
+public class CalendarEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalendarEventHub.class);
+
+    private static final String CHANGE_EVENT = "change";
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final String resyncJson;
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sender;
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sse-heartbeat").daemon().factory());
+    private final AtomicLong eventIds = new AtomicLong();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public CalendarEventHub(ObjectMapper objectMapper,
+                            @Value("${events.sse.buffer-size:256}") int bufferSize,
+                            @Value("${events.sse.timeout:30m}") Duration timeout,
+                            @Value("${events.sse.heartbeat:25s}") Duration heartbeatInterval,
+                            @Value("${events.sse.sender-threads:8}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.resyncJson = toJson(ChangeEventDto.resync());
+        // Простаивающие потоки отпускаются, при нагрузке их не больше senderThreads
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), Thread.ofPlatform().name("sse-sender-", 0).daemon().factory());
+        this.sender.allowCoreThreadTimeOut(true);
+        // Комментарий раз в интервал: держит соединение через прокси и находит отвалившихся клиентов
+        long period = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Новый поток для репетитора; первым событием уходит ready с id, от которого идёт поток
+    public SseEmitter subscribe(Integer userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.offer(SseEmitter.event().name("ready").id(Long.toString(eventIds.get())).data("").build());
+        return emitter;
+    }
+
+    // Только после коммита: откаченные изменения подписчики не видят
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(CalendarChangeEvent event) {
+        Set<Subscriber> targets = subscribers.get(event.userId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> message = changeEvent(
+                eventIds.incrementAndGet(), toJson(event.change()));
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(message);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int open = 0;
+        for (Set<Subscriber> set : subscribers.values()) {
+            open += set.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tutors", subscribers.size());
+        stats.put("subscribers", open);
+        stats.put("bufferSize", bufferSize);
+        stats.put("senderThreads", sender.getMaximumPoolSize());
+        stats.put("sendersActive", sender.getActiveCount());
+        stats.put("delivered", delivered.sum());
+        stats.put("dropped", dropped.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.emitter.complete();
+            }
+        }
+        sender.shutdown();
+    }
+
+    // Готовая строка JSON: конвертер пишет её как есть, без повторной сериализации на подписчика
+    private static Set<ResponseBodyEmitter.DataWithMediaType> changeEvent(long id, String json) {
+        return SseEmitter.event()
+                .name(CHANGE_EVENT)
+                .id(Long.toString(id))
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private String toJson(ChangeEventDto change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize change event", e);
+        }
+    }
+
+    private void sendHeartbeats() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.offer(ping);
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber {
+        final Integer userId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        // Переполнился: в очереди остался только resync, после него поток закрывается
+        volatile boolean overflowed;
+        volatile boolean closed;
+
+        Subscriber(Integer userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        // Не блокируется: очередь полна - подписчик отстал и отключается
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            synchronized (this) {
+                if (closed || overflowed) {
+                    return;
+                }
+                if (!queue.offer(event)) {
+                    queue.clear();
+                    queue.offer(changeEvent(eventIds.get(), resyncJson));
+                    overflowed = true;
+                    remove(this);
+                    dropped.increment();
+                    logger.debug("SSE subscriber of user {} fell behind {} events, dropped", userId, bufferSize);
+                }
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        // Один отправитель на подписчика: события уходят по порядку
+        void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                        delivered.increment();
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                        return;
+                    }
+                }
+                if (overflowed) {
+                    if (queue.isEmpty()) {
+                        emitter.complete();
+                        return;
+                    }
+                    continue;
+                }
+                draining.set(false);
+                // Событие могло прийти между poll и сбросом флага
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            queue.clear();
+            remove(this);
+        }
+    }
+}
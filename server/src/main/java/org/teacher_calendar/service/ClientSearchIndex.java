@@ -0,0 +1,232 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.entity.Client;
+import org.teacher_calendar.repository.ClientRepository;
+import org.teacher_calendar.util.AfterCommit;
+import org.teacher_calendar.util.DtoConverter;
+import org.teacher_calendar.util.LruCache;
+import org.teacher_calendar.util.TrigramIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Поиск клиентов репетитора по имени, телефону и городу для подсказок при вводе.
+ *
+ * На каждого репетитора - свой индекс триграмм (TrigramIndex), поэтому поиск не видит
+ * чужих клиентов и не сканирует таблицу. Запрос бьётся на термины, каждый термин должен
+ * найтись хотя бы в одном поле; кандидаты - самый короткий список триграмм, отфильтрованный
+ * списками остальных терминов.
+ * Выше в выдаче совпадение с начала имени, затем с начала слова, затем телефон и город.
+ * Термин из 1-2 символов, как и в TrigramIndex, совпадает только с началом слова: иначе
+ * результат зависел бы от того, какой термин выбран для кандидатов.
+ * ClientService обновляет индекс после коммита; индексы неактивных репетиторов вытесняются по LRU.
+ */
+@Component
+public class ClientSearchIndex {
+
+    private static final int NAME = 0;
+    private static final int CITY = 1;
+    private static final int PHONE = 2;
+
+    // Оценка термина, найденного с начала имени - лучшая из возможных
+    private static final int MAX_TERM_SCORE = 100;
+
+    // Термины короче ищутся только с начала слова (TrigramIndex: у них нет внутренних триграмм)
+    private static final int MIN_SUBSTRING_TERM = 3;
+
+    private final ClientRepository clientRepository;
+    private final LruCache<Integer, TutorClients> tutors;
+    private final Map<Integer, Long> generations = new ConcurrentHashMap<>();
+
+    public ClientSearchIndex(ClientRepository clientRepository,
+                             @Value("${clients.search-index.max-tutors:200}") int maxTutors) {
+        this.clientRepository = clientRepository;
+        this.tutors = new LruCache<>(maxTutors);
+    }
+
+    // Не больше limit клиентов, лучшие совпадения первыми
+    public List<ClientDto> search(Integer userId, String query, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        TutorClients tutor = tutorFor(userId);
+        PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        synchronized (tutor) {
+            // Кандидаты идут по возрастанию (имя, id) - в порядке BEST_FIRST при равной оценке.
+            // Поэтому кандидат с оценкой не выше худшего из полного top уже не пройдёт, а когда
+            // все limit мест заняты максимально возможной оценкой, обход можно остановить
+            int maxScore = MAX_TERM_SCORE * terms.size();
+            tutor.index.forEachCandidate(terms, (id, fields) -> {
+                int score = score(fields, terms);
+                if (score == 0 || (top.size() == limit && score <= top.peek().score())) {
+                    return true;
+                }
+                top.add(new Match(id, score, fields[NAME]));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+                return top.size() < limit || top.peek().score() < maxScore;
+            });
+
+            List<Match> matches = new ArrayList<>(top);
+            matches.sort(BEST_FIRST);
+            List<ClientDto> result = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                result.add(copyOf(tutor.clients.get(match.id())));
+            }
+            return result;
+        }
+    }
+
+    // Клиент создан или изменён
+    public void clientChanged(Integer userId, ClientDto client) {
+        ClientDto snapshot = copyOf(client);
+        AfterCommit.run(() -> apply(userId, tutor -> tutor.put(snapshot)));
+    }
+
+    public void clientRemoved(Integer userId, Integer clientId) {
+        AfterCommit.run(() -> apply(userId, tutor -> tutor.remove(clientId)));
+    }
+
+    public Map<String, Object> stats() {
+        return tutors.stats();
+    }
+
+    // Термины запроса: слова из букв и цифр в нормализованном виде
+    private static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        String normalized = TrigramIndex.normalize(query);
+        if (normalized == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Сумма по терминам; 0 - какой-то термин не найден ни в одном поле
+    private static int score(String[] fields, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = fieldScore(fields[NAME], term, MAX_TERM_SCORE, 80, 50);
+            if (best < 70 && Character.isDigit(term.charAt(0))) {
+                best = Math.max(best, fieldScore(fields[PHONE], term, 70, 60, 60));
+            }
+            if (best < 40) {
+                best = Math.max(best, fieldScore(fields[CITY], term, 40, 35, 20));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int fieldScore(String field, String term, int prefix, int wordStart, int substring) {
+        if (field == null) {
+            return 0;
+        }
+        int at = field.indexOf(term);
+        if (at < 0) {
+            return 0;
+        }
+        if (at == 0) {
+            return prefix;
+        }
+        for (; at > 0; at = field.indexOf(term, at + 1)) {
+            if (!Character.isLetterOrDigit(field.charAt(at - 1))) {
+                return wordStart;
+            }
+        }
+        return term.length() < MIN_SUBSTRING_TERM ? 0 : substring;
+    }
+
+    private void apply(Integer userId, Consumer<TutorClients> change) {
+        TutorClients tutor;
+        synchronized (tutors) {
+            generations.merge(userId, 1L, Long::sum);
+            tutor = tutors.get(userId);
+        }
+        if (tutor != null) {
+            synchronized (tutor) {
+                change.accept(tutor);
+            }
+        }
+    }
+
+    private TutorClients tutorFor(Integer userId) {
+        TutorClients tutor = tutors.get(userId);
+        if (tutor != null) {
+            return tutor;
+        }
+
+        long stamp = generations.getOrDefault(userId, 0L);
+        tutor = new TutorClients();
+        for (Client client : clientRepository.findByUserId(userId)) {
+            tutor.put(DtoConverter.toDto(client));
+        }
+
+        synchronized (tutors) {
+            if (generations.getOrDefault(userId, 0L) == stamp) {
+                tutors.put(userId, tutor);
+            }
+        }
+        return tutor;
+    }
+
+    private static ClientDto copyOf(ClientDto client) {
+        ClientDto copy = new ClientDto(client.getId(), client.getName(), client.getPhone(), client.getTimezone());
+        copy.setCity(client.getCity());
+        copy.setDescription(client.getDescription());
+        copy.setLessonPrice(client.getLessonPrice());
+        return copy;
+    }
+
+    private static final Comparator<Match> BEST_FIRST = Comparator
+            .comparingInt(Match::score).reversed()
+            .thenComparing(Match::name, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(Match::id);
+
+    private record Match(int id, int score, String name) {}
+
+    // Клиенты одного репетитора: снимки для выдачи и индекс по нормализованным полям
+    private static final class TutorClients {
+        final Map<Integer, ClientDto> clients = new HashMap<>();
+        final TrigramIndex index = new TrigramIndex();
+
+        void put(ClientDto client) {
+            clients.put(client.getId(), client);
+            String[] fields = new String[3];
+            fields[NAME] = TrigramIndex.normalize(client.getName());
+            fields[CITY] = TrigramIndex.normalize(client.getCity());
+            fields[PHONE] = client.getPhone() != null ? client.getPhone().replaceAll("\\D", "") : null;
+            index.put(client.getId(), fields);
+        }
+
+        void remove(Integer clientId) {
+            clients.remove(clientId);
+            index.remove(clientId);
+        }
+    }
+}
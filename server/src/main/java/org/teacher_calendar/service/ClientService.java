@@ -1,60 +1,112 @@
 package org.teacher_calendar.service;
 
+import org.teacher_calendar.dto.ChangeEventDto;
 import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.ClientStatsDto;
 import org.teacher_calendar.entity.Client;
-import org.teacher_calendar.entity.User;
 import org.teacher_calendar.repository.ClientRepository;
 import org.teacher_calendar.repository.UserRepository;
 import org.teacher_calendar.util.DtoConverter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ClientService {
 
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
+    private final WeekLessonCache weekLessonCache;
+    private final DataVersionService dataVersionService;
+    private final LessonConflictIndex lessonConflictIndex;
+    private final LessonLabelIndex lessonLabelIndex;
+    private final UserCache userCache;
+    private final ClientSearchIndex clientSearchIndex;
+    private final RevenueService revenueService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ClientService(ClientRepository clientRepository, UserRepository userRepository) {
+    public ClientService(ClientRepository clientRepository, UserRepository userRepository,
+                         WeekLessonCache weekLessonCache, DataVersionService dataVersionService,
+                         LessonConflictIndex lessonConflictIndex, LessonLabelIndex lessonLabelIndex,
+                         UserCache userCache, ClientSearchIndex clientSearchIndex,
+                         RevenueService revenueService, ApplicationEventPublisher eventPublisher) {
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
+        this.weekLessonCache = weekLessonCache;
+        this.dataVersionService = dataVersionService;
+        this.lessonConflictIndex = lessonConflictIndex;
+        this.lessonLabelIndex = lessonLabelIndex;
+        this.userCache = userCache;
+        this.clientSearchIndex = clientSearchIndex;
+        this.revenueService = revenueService;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<ClientDto> getAllClients(Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        userCache.require(userId);
+
+        return clientRepository.findByUserId(userId)
+                .stream()
+                .map(DtoConverter::toDto)
+                .collect(Collectors.toList());
+    }
 
-        return clientRepository.findByUser(user)
+    // Клиенты с числом уроков, последним и ближайшим уроком и долгом - один запрос на весь список.
+    // Время уроков хранится в UTC (фронтенд шлёт toISOString), поэтому и "сейчас" - в UTC
+    @Transactional(readOnly = true)
+    public List<ClientStatsDto> getClientsWithStats(Integer userId) {
+        userCache.require(userId);
+
+        return clientRepository.findStatsByUserId(userId, LocalDateTime.now(ZoneOffset.UTC))
                 .stream()
                 .map(DtoConverter::toDto)
                 .collect(Collectors.toList());
     }
 
-    public ClientDto getClientById(Integer id) {
-        return clientRepository.findById(id)
+    // null - клиента нет или он чужой (404)
+    public ClientDto getClientById(Integer id, Integer userId) {
+        return clientRepository.findByIdAndUserId(id, userId)
                 .map(DtoConverter::toDto)
                 .orElse(null);
     }
 
     public ClientDto createClient(ClientDto clientDto, Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        userCache.require(userId);
 
         Client client = DtoConverter.toEntity(clientDto);
-        client.setUser(user);
+        client.setUser(userRepository.getReferenceById(userId));
         Client savedClient = clientRepository.save(client);
-        return DtoConverter.toDto(savedClient);
+        ClientDto savedDto = DtoConverter.toDto(savedClient);
+        clientSearchIndex.clientChanged(userId, savedDto);
+        dataVersionService.bump(userId);
+        publish(userId, ChangeEventDto.CREATED, savedDto.getId(), savedDto);
+        return savedDto;
     }
 
-    public ClientDto updateClient(Integer id, ClientDto clientDto) {
-        Client existingClient = clientRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Client not found with id: " + id));
+    public ClientDto updateClient(Integer id, ClientDto clientDto, Integer userId) {
+        // Цена клиента входит в агрегаты выручки: пересчёт идёт под блокировкой репетитора,
+        // как и запись уроков, иначе параллельный урок посчитается по старой цене
+        lessonConflictIndex.lockTutor(userId);
+        Client existingClient = clientRepository.findByIdAndUserId(id, userId).orElse(null);
+        if (existingClient == null) {
+            return null;
+        }
+
+        // Новая стоимость занятия - пересчитываем выручку клиента по всем месяцам
+        if (!Objects.equals(existingClient.getLessonPrice(), clientDto.getLessonPrice())) {
+            revenueService.clientRepriced(id, clientDto.getLessonPrice());
+        }
 
         // Обновляем только необходимые поля, сохраняя связь с пользователем
         existingClient.setName(clientDto.getName());
@@ -65,22 +117,44 @@ public class ClientService {
         existingClient.setLessonPrice(clientDto.getLessonPrice());
 
         Client updatedClient = clientRepository.save(existingClient);
-        return DtoConverter.toDto(updatedClient);
+        ClientDto updatedDto = DtoConverter.toDto(updatedClient);
+        clientSearchIndex.clientChanged(userId, updatedDto);
+        weekLessonCache.invalidateClient(userId, updatedClient.getId());
+        dataVersionService.bump(userId);
+        publish(userId, ChangeEventDto.UPDATED, updatedDto.getId(), updatedDto);
+        return updatedDto;
     }
 
-    public boolean deleteClient(Integer id) {
-        if (!clientRepository.existsById(id)) {
+    public boolean deleteClient(Integer id, Integer userId) {
+        Client client = clientRepository.findByIdAndUserId(id, userId).orElse(null);
+        if (client == null) {
             return false;
         }
 
-        clientRepository.deleteById(id);
+        // Уроки клиента удаляются каскадом, вместе с ними уходят и недели, где они были,
+        // и интервалы в индексе занятости
+        lessonConflictIndex.lockTutor(userId);
+        clientRepository.delete(client);
+        lessonConflictIndex.reload(userId);
+        lessonLabelIndex.invalidateUser(userId);
+        clientSearchIndex.clientRemoved(userId, id);
+        weekLessonCache.invalidateClient(userId, id);
+        dataVersionService.bump(userId);
+        // Уроки клиента удалены каскадом - отдельных событий по ним нет, подписчики перечитывают недели
+        publish(userId, ChangeEventDto.DELETED, id, null);
         return true;
     }
 
-    public List<ClientDto> searchClientsByName(String name) {
-        return clientRepository.findByNameContainingIgnoreCase(name)
-                .stream()
-                .map(DtoConverter::toDto)
-                .collect(Collectors.toList());
+    // Подсказки при вводе: только клиенты репетитора, по имени, телефону и городу
+    @Transactional(readOnly = true)
+    public List<ClientDto> searchClients(String query, int limit, Integer userId) {
+        userCache.require(userId);
+        return clientSearchIndex.search(userId, query, Math.min(limit, MAX_SEARCH_LIMIT));
+    }
+
+    // Подписчикам /api/events/stream - после коммита (CalendarEventHub)
+    private void publish(Integer userId, String action, Integer clientId, ClientDto client) {
+        eventPublisher.publishEvent(new CalendarChangeEvent(userId,
+                new ChangeEventDto(ChangeEventDto.CLIENT, action, clientId, client)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.util.AfterCommit;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версия данных репетитора: растёт после каждого коммита, меняющего уроки, клиентов или метки.
+ * Из неё строится ETag для GET-эндпоинтов, так что совпавший If-None-Match
+ * можно отдать как 304 без запроса к БД и без сериализации.
+ */
+@Service
+public class DataVersionService {
+
+    // Отличает версии разных запусков сервера: после рестарта счётчики начинаются с нуля
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // Поднять версию после коммита текущей транзакции
+    public void bump(Integer userId) {
+        AfterCommit.run(() -> versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet());
+    }
+
+    // Сильный ETag для данных репетитора
+    public String etag(Integer userId) {
+        AtomicLong version = versions.get(userId);
+        long value = version != null ? version.get() : 0L;
+        return "\"" + bootId + "-" + userId + "-" + value + "\"";
+    }
+
+    // Сравнение с заголовком If-None-Match (список тегов через запятую или "*")
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            // Для If-None-Match используется слабое сравнение, префикс W/ не учитываем
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,130 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.dto.LabelDto;
+import org.teacher_calendar.entity.Label;
+import org.teacher_calendar.repository.LabelRepository;
+import org.teacher_calendar.util.AfterCommit;
+import org.teacher_calendar.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Словарь меток репетитора в памяти: id -> название, цвет, эмодзи и владелец.
+ *
+ * Метки меняются редко, а читаются на каждой загрузке настроек и календаря и на каждой
+ * записи урока (проверка владельца, метки в ответе). Словарь хранится неизменяемым
+ * снимком, поэтому читается без блокировок; LabelService после коммита подменяет
+ * снимок на новый. Неактивные репетиторы вытесняются по LRU.
+ */
+@Component
+public class LabelCache {
+
+    private final LabelRepository labelRepository;
+    private final LruCache<Integer, Map<Integer, CachedLabel>> tutors;
+    private final Map<Integer, Long> generations = new ConcurrentHashMap<>();
+
+    public LabelCache(LabelRepository labelRepository,
+                      @Value("${labels.cache.max-tutors:1000}") int maxTutors) {
+        this.labelRepository = labelRepository;
+        this.tutors = new LruCache<>(maxTutors);
+    }
+
+    // Все метки репетитора по возрастанию id
+    public Map<Integer, CachedLabel> labelsOf(Integer userId) {
+        Map<Integer, CachedLabel> labels = tutors.get(userId);
+        if (labels != null) {
+            return labels;
+        }
+
+        long stamp = generations.getOrDefault(userId, 0L);
+        Map<Integer, CachedLabel> loaded = new TreeMap<>();
+        for (Label label : labelRepository.findByUserId(userId)) {
+            loaded.put(label.getId(), CachedLabel.of(label, userId));
+        }
+        labels = Collections.unmodifiableMap(loaded);
+
+        synchronized (tutors) {
+            if (generations.getOrDefault(userId, 0L) == stamp) {
+                tutors.put(userId, labels);
+            }
+        }
+        return labels;
+    }
+
+    // Метка репетитора или null, если такой метки у него нет
+    public CachedLabel get(Integer userId, Integer labelId) {
+        return labelId == null ? null : labelsOf(userId).get(labelId);
+    }
+
+    public LabelDto getDto(Integer userId, Integer labelId) {
+        CachedLabel label = get(userId, labelId);
+        return label != null ? label.toDto() : null;
+    }
+
+    // Только метки репетитора из переданных id: в исходном порядке, без повторов
+    public List<Integer> ownedIds(Integer userId, Collection<Integer> labelIds) {
+        List<Integer> owned = new ArrayList<>();
+        if (labelIds == null || labelIds.isEmpty()) {
+            return owned;
+        }
+        Map<Integer, CachedLabel> labels = labelsOf(userId);
+        for (Integer labelId : new LinkedHashSet<>(labelIds)) {
+            if (labelId != null && labels.containsKey(labelId)) {
+                owned.add(labelId);
+            }
+        }
+        return owned;
+    }
+
+    // Метка создана или изменена
+    public void put(CachedLabel label) {
+        AfterCommit.run(() -> replace(label.ownerId(), labels -> labels.put(label.id(), label)));
+    }
+
+    public void remove(Integer userId, Integer labelId) {
+        AfterCommit.run(() -> replace(userId, labels -> labels.remove(labelId)));
+    }
+
+    public Map<String, Object> stats() {
+        return tutors.stats();
+    }
+
+    // Копия снимка с изменением; если словаря репетитора нет в кэше, он просто перечитается
+    private void replace(Integer userId, Consumer<Map<Integer, CachedLabel>> change) {
+        synchronized (tutors) {
+            generations.merge(userId, 1L, Long::sum);
+            Map<Integer, CachedLabel> labels = tutors.get(userId);
+            if (labels != null) {
+                Map<Integer, CachedLabel> copy = new TreeMap<>(labels);
+                change.accept(copy);
+                tutors.put(userId, Collections.unmodifiableMap(copy));
+            }
+        }
+    }
+
+    public record CachedLabel(Integer id, String name, String color, String emoji, Integer ownerId) {
+
+        public static CachedLabel of(Label label, Integer ownerId) {
+            return new CachedLabel(label.getId(), label.getName(), label.getColor(), label.getEmoji(), ownerId);
+        }
+
+        public LabelDto toDto() {
+            LabelDto dto = new LabelDto();
+            dto.setId(id);
+            dto.setName(name);
+            dto.setColor(color);
+            dto.setEmoji(emoji);
+            return dto;
+        }
+    }
+}
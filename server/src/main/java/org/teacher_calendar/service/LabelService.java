@@ -1,12 +1,13 @@
 package org.teacher_calendar.service;
 
+import org.teacher_calendar.dto.ChangeEventDto;
 import org.teacher_calendar.dto.LabelDto;
 import org.teacher_calendar.entity.Label;
-import org.teacher_calendar.entity.User;
 import org.teacher_calendar.repository.LabelRepository;
 import org.teacher_calendar.repository.UserRepository;
 import org.teacher_calendar.util.DtoConverter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,26 +20,42 @@ public class LabelService {
 
     private final LabelRepository labelRepository;
     private final UserRepository userRepository;
+    private final WeekLessonCache weekLessonCache;
+    private final DataVersionService dataVersionService;
+    private final LessonConflictIndex lessonConflictIndex;
+    private final LessonLabelIndex lessonLabelIndex;
+    private final LabelCache labelCache;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public LabelService(LabelRepository labelRepository, UserRepository userRepository) {
+    public LabelService(LabelRepository labelRepository, UserRepository userRepository,
+                        WeekLessonCache weekLessonCache, DataVersionService dataVersionService,
+                        LessonConflictIndex lessonConflictIndex, LessonLabelIndex lessonLabelIndex,
+                        LabelCache labelCache, UserCache userCache,
+                        ApplicationEventPublisher eventPublisher) {
         this.labelRepository = labelRepository;
         this.userRepository = userRepository;
+        this.weekLessonCache = weekLessonCache;
+        this.dataVersionService = dataVersionService;
+        this.lessonConflictIndex = lessonConflictIndex;
+        this.lessonLabelIndex = lessonLabelIndex;
+        this.labelCache = labelCache;
+        this.userCache = userCache;
+        this.eventPublisher = eventPublisher;
     }
 
+    // Из словаря меток репетитора, без запроса к БД
+    @Transactional(readOnly = true)
     public List<LabelDto> getAllLabels(Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        return labelRepository.findByUser(user)
+        return labelCache.labelsOf(userId).values()
                 .stream()
-                .map(DtoConverter::toDto)
+                .map(LabelCache.CachedLabel::toDto)
                 .collect(Collectors.toList());
     }
 
     public LabelDto createLabel(LabelDto labelDto, Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        userCache.require(userId);
 
         // Проверяем, нет ли уже метки с таким именем у пользователя
         if (labelRepository.existsByNameAndUserId(labelDto.getName(), userId)) {
@@ -49,19 +66,25 @@ public class LabelService {
         label.setName(labelDto.getName());
         label.setColor(labelDto.getColor());
         label.setEmoji(labelDto.getEmoji());
-        label.setUser(user);
+        label.setUser(userRepository.getReferenceById(userId));
 
         Label savedLabel = labelRepository.save(label);
-        return DtoConverter.toDto(savedLabel);
+        labelCache.put(LabelCache.CachedLabel.of(savedLabel, userId));
+        dataVersionService.bump(userId);
+        LabelDto savedDto = DtoConverter.toDto(savedLabel);
+        publish(userId, ChangeEventDto.CREATED, savedDto.getId(), savedDto);
+        return savedDto;
     }
 
-    public LabelDto updateLabel(Integer id, LabelDto labelDto) {
-        Label label = labelRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Label not found"));
+    public LabelDto updateLabel(Integer id, LabelDto labelDto, Integer userId) {
+        Label label = labelRepository.findByIdAndUserId(id, userId).orElse(null);
+        if (label == null) {
+            return null;
+        }
 
         // Проверяем уникальность имени, если оно изменилось
         if (!label.getName().equals(labelDto.getName())) {
-            if (labelRepository.existsByNameAndUserId(labelDto.getName(), label.getUser().getId())) {
+            if (labelRepository.existsByNameAndUserId(labelDto.getName(), userId)) {
                 throw new RuntimeException("Label with this name already exists");
             }
         }
@@ -71,20 +94,34 @@ public class LabelService {
         label.setEmoji(labelDto.getEmoji());
 
         Label updatedLabel = labelRepository.save(label);
-        return DtoConverter.toDto(updatedLabel);
+        labelCache.put(LabelCache.CachedLabel.of(updatedLabel, userId));
+        weekLessonCache.invalidateLabel(userId, updatedLabel.getId());
+        dataVersionService.bump(userId);
+        LabelDto updatedDto = DtoConverter.toDto(updatedLabel);
+        publish(userId, ChangeEventDto.UPDATED, updatedDto.getId(), updatedDto);
+        return updatedDto;
     }
 
-    public boolean deleteLabel(Integer id) {
-        if (!labelRepository.existsById(id)) {
+    public boolean deleteLabel(Integer id, Integer userId) {
+        Label label = labelRepository.findByIdAndUserId(id, userId).orElse(null);
+        if (label == null) {
             return false;
         }
 
-        labelRepository.deleteById(id);
+        // Строки lesson_labels удаляются каскадом; бит метки снимается со всех уроков после коммита
+        lessonConflictIndex.lockTutor(userId);
+        labelRepository.delete(label);
+        lessonLabelIndex.labelDeleted(userId, id);
+        labelCache.remove(userId, id);
+        weekLessonCache.invalidateLabel(userId, id);
+        dataVersionService.bump(userId);
+        publish(userId, ChangeEventDto.DELETED, id, null);
         return true;
     }
 
-    public LabelDto getLabelById(Integer id) {
-        return labelRepository.findById(id)
+    // null - метки нет или она чужая (404)
+    public LabelDto getLabelById(Integer id, Integer userId) {
+        return labelRepository.findByIdAndUserId(id, userId)
                 .map(DtoConverter::toDto)
                 .orElse(null);
     }
@@ -96,4 +133,10 @@ public class LabelService {
                 .map(DtoConverter::toDto)
                 .collect(Collectors.toList());
     }
+
+    // Подписчикам /api/events/stream - после коммита (CalendarEventHub)
+    private void publish(Integer userId, String action, Integer labelId, LabelDto label) {
+        eventPublisher.publishEvent(new CalendarChangeEvent(userId,
+                new ChangeEventDto(ChangeEventDto.LABEL, action, labelId, label)));
+    }
 }
\ No newline at end of file
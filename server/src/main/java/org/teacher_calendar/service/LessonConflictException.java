@@ -0,0 +1,23 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.dto.LessonDto;
+
+import java.util.List;
+
+/**
+ * Урок пересекается по времени с другими уроками репетитора.
+ * Обрабатывается в GlobalExceptionHandler как 409 Conflict со списком пересечений.
+ */
+public class LessonConflictException extends RuntimeException {
+
+    private final List<LessonDto> conflicts;
+
+    public LessonConflictException(List<LessonDto> conflicts) {
+        super("Lesson overlaps with " + conflicts.size() + " other lesson(s)");
+        this.conflicts = conflicts;
+    }
+
+    public List<LessonDto> getConflicts() {
+        return conflicts;
+    }
+}
@@ -0,0 +1,181 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.repository.LessonRepository;
+import org.teacher_calendar.util.IntervalTree;
+import org.teacher_calendar.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Индекс занятости репетитора: дерево интервалов [dateTime, endTime) по всем его урокам.
+ *
+ * Записи одного репетитора сериализуются полосатыми блокировками (striped locks):
+ * блокировка берётся при первой записи в транзакции и отпускается только после её
+ * завершения. Поэтому проверка пересечений и вставка атомарны относительно других
+ * транзакций того же репетитора, а дерево после коммита всегда совпадает с БД.
+ * При откате дерево репетитора сбрасывается и при следующем обращении перечитывается из БД.
+ */
+@Component
+public class LessonConflictIndex {
+
+    private static final int STRIPES = 64;
+
+    private final LessonRepository lessonRepository;
+    private final LruCache<Integer, IntervalTree> trees;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public LessonConflictIndex(LessonRepository lessonRepository,
+                               @Value("${lessons.conflict-index.max-tutors:500}") int maxTutors) {
+        this.lessonRepository = lessonRepository;
+        this.trees = new LruCache<>(maxTutors);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Захватить блокировку репетитора до конца текущей транзакции.
+     * Вызывается в начале пишущего метода, до любых запросов к БД,
+     * чтобы порядок "блокировка -> строки БД" был одинаковым у всех писателей.
+     */
+    public void lockTutor(Integer userId) {
+        ReentrantLock lock = lockFor(userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Lesson writes must run inside a transaction");
+        }
+        if (TransactionSynchronizationManager.hasResource(lock)) {
+            TutorLock held = (TutorLock) TransactionSynchronizationManager.getResource(lock);
+            held.addTutor(userId);
+            return;
+        }
+
+        lock.lock();
+        TutorLock held = new TutorLock(lock);
+        held.addTutor(userId);
+        TransactionSynchronizationManager.bindResource(lock, held);
+        TransactionSynchronizationManager.registerSynchronization(held);
+    }
+
+    /**
+     * Проверить, что интервал урока ни с чем не пересекается, и занять его.
+     * Возвращает id пересекающихся уроков; если список не пуст, индекс не меняется.
+     */
+    public List<Integer> reserve(Integer userId, Integer lessonId, LocalDateTime start, LocalDateTime end) {
+        lockTutor(userId);
+        IntervalTree tree = treeFor(userId);
+
+        long from = toEpoch(start);
+        long to = toEpoch(end);
+        List<Integer> conflicts = tree.overlapping(from, to);
+        conflicts.remove(lessonId);
+        if (!conflicts.isEmpty()) {
+            return conflicts;
+        }
+
+        tree.put(lessonId, from, to);
+        markModified(userId);
+        return conflicts;
+    }
+
+    // id уроков, пересекающихся с интервалом; индекс не меняется (проверка правила серии)
+    public List<Integer> overlapping(Integer userId, LocalDateTime start, LocalDateTime end) {
+        lockTutor(userId);
+        return treeFor(userId).overlapping(toEpoch(start), toEpoch(end));
+    }
+
+    // Освободить интервал удалённого урока
+    public void release(Integer userId, Integer lessonId) {
+        lockTutor(userId);
+        IntervalTree tree = trees.get(userId);
+        if (tree != null) {
+            tree.remove(lessonId);
+        }
+        markModified(userId);
+    }
+
+    // Уроки репетитора поменялись в обход индекса (например, каскадом): перечитать после коммита
+    public void reload(Integer userId) {
+        lockTutor(userId);
+        markModified(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                trees.remove(userId);
+            }
+        });
+    }
+
+    // Конец урока: endTime, а если он не задан - начало плюс длительность
+    public static LocalDateTime effectiveEnd(LocalDateTime start, LocalDateTime endTime, Integer durationMinutes) {
+        if (endTime != null) {
+            return endTime;
+        }
+        return start.plusMinutes(durationMinutes != null ? durationMinutes : 0);
+    }
+
+    private IntervalTree treeFor(Integer userId) {
+        IntervalTree tree = trees.get(userId);
+        if (tree == null) {
+            tree = new IntervalTree();
+            for (Object[] row : lessonRepository.findIntervalsByUserId(userId)) {
+                LocalDateTime start = (LocalDateTime) row[1];
+                LocalDateTime end = effectiveEnd(start, (LocalDateTime) row[2], (Integer) row[3]);
+                tree.put((Integer) row[0], toEpoch(start), toEpoch(end));
+            }
+            trees.put(userId, tree);
+        }
+        return tree;
+    }
+
+    private void markModified(Integer userId) {
+        TutorLock held = (TutorLock) TransactionSynchronizationManager.getResource(lockFor(userId));
+        held.modified = true;
+    }
+
+    private ReentrantLock lockFor(Integer userId) {
+        return locks[Math.floorMod(userId.hashCode(), STRIPES)];
+    }
+
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Блокировка полосы, удерживаемая транзакцией до её завершения
+    private final class TutorLock implements TransactionSynchronization {
+        private final ReentrantLock lock;
+        private final Set<Integer> tutors = new HashSet<>();
+        private boolean modified;
+
+        TutorLock(ReentrantLock lock) {
+            this.lock = lock;
+        }
+
+        void addTutor(Integer userId) {
+            tutors.add(userId);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                // Откат: в дереве могли остаться незакоммиченные интервалы
+                if (status != STATUS_COMMITTED && modified) {
+                    for (Integer userId : tutors) {
+                        trees.remove(userId);
+                    }
+                }
+            } finally {
+                TransactionSynchronizationManager.unbindResourceIfPossible(lock);
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.repository.LabelRepository;
+import org.teacher_calendar.repository.LessonRepository;
+import org.teacher_calendar.util.AfterCommit;
+import org.teacher_calendar.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Битовый индекс меток для фильтра "все из / любая из".
+ *
+ * У каждого репетитора свой словарь labelId -> номер бита, а набор меток урока хранится
+ * маской: одним long, пока у репетитора не больше 64 меток, и массивом long'ов дальше.
+ * Маски упорядочены по (начало, id), поэтому фильтр проходит только уроки из [from, to]
+ * в порядке времени и останавливается на limit совпадениях, без join'ов с lesson_labels.
+ *
+ * Индекс обновляется после коммита пишущей транзакции. Записи одного репетитора
+ * сериализованы блокировкой LessonConflictIndex, поэтому обновления применяются
+ * в порядке коммитов. Чтение, загрузившее индекс из БД во время чужого коммита,
+ * не кладёт его в кэш (счётчик поколений, как в WeekLessonCache).
+ */
+@Component
+public class LessonLabelIndex {
+
+    private final LessonRepository lessonRepository;
+    private final LabelRepository labelRepository;
+    private final LruCache<Integer, TutorLabels> tutors;
+    private final Map<Integer, Long> generations = new ConcurrentHashMap<>();
+
+    public LessonLabelIndex(LessonRepository lessonRepository, LabelRepository labelRepository,
+                            @Value("${lessons.label-index.max-tutors:500}") int maxTutors) {
+        this.lessonRepository = lessonRepository;
+        this.labelRepository = labelRepository;
+        this.tutors = new LruCache<>(maxTutors);
+    }
+
+    /**
+     * Уроки репетитора, у которых есть все метки allOf и хотя бы одна из anyOf
+     * (пустой набор - без условия), в интервале [from, to]. Возвращает id уроков
+     * по возрастанию времени, не больше limit.
+     */
+    public List<Integer> find(Integer userId, Collection<Integer> allOf, Collection<Integer> anyOf,
+                              LocalDateTime from, LocalDateTime to, int limit) {
+        TutorLabels index = indexFor(userId);
+        long fromEpoch = from != null ? toEpoch(from) : Long.MIN_VALUE;
+        long toEpoch = to != null ? toEpoch(to) : Long.MAX_VALUE;
+
+        List<Integer> ids = new ArrayList<>();
+        synchronized (index) {
+            long[] allMask = index.mask(allOf, true);
+            long[] anyMask = index.mask(anyOf, false);
+            // Метка не из словаря репетитора: под "все из" не подходит ни один урок
+            if (allMask == null) {
+                return new ArrayList<>();
+            }
+            boolean anyRequired = anyOf != null && !anyOf.isEmpty();
+
+            for (LessonMask lesson : index.between(fromEpoch, toEpoch)) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                if (!containsAll(lesson.bits, allMask)) {
+                    continue;
+                }
+                if (anyRequired && !intersects(lesson.bits, anyMask)) {
+                    continue;
+                }
+                ids.add(lesson.id);
+            }
+        }
+        return ids;
+    }
+
+    // Урок создан или изменился: полный набор его меток и время начала
+    public void lessonChanged(Integer userId, Integer lessonId, LocalDateTime start, Collection<Integer> labelIds) {
+        List<Integer> labels = new ArrayList<>(labelIds);
+        AfterCommit.run(() -> apply(userId, index -> index.putLesson(lessonId, toEpoch(start), labels)));
+    }
+
+    public void lessonRemoved(Integer userId, Integer lessonId) {
+        AfterCommit.run(() -> apply(userId, index -> index.removeLesson(lessonId)));
+    }
+
+    // Метка удалена: снимаем её бит со всех уроков и освобождаем его
+    public void labelDeleted(Integer userId, Integer labelId) {
+        AfterCommit.run(() -> apply(userId, index -> index.removeLabel(labelId)));
+    }
+
+    // Уроки поменялись массово (пачка, каскад): индекс перечитается при следующем фильтре
+    public void invalidateUser(Integer userId) {
+        AfterCommit.run(() -> {
+            synchronized (tutors) {
+                bump(userId);
+                tutors.remove(userId);
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        return tutors.stats();
+    }
+
+    private void apply(Integer userId, Consumer<TutorLabels> change) {
+        TutorLabels index;
+        synchronized (tutors) {
+            bump(userId);
+            index = tutors.get(userId);
+        }
+        if (index != null) {
+            synchronized (index) {
+                change.accept(index);
+            }
+        }
+    }
+
+    private TutorLabels indexFor(Integer userId) {
+        TutorLabels index = tutors.get(userId);
+        if (index != null) {
+            return index;
+        }
+
+        long stamp = generations.getOrDefault(userId, 0L);
+        index = new TutorLabels();
+        for (Integer labelId : labelRepository.findIdsByUserId(userId)) {
+            index.bitFor(labelId);
+        }
+        for (Object[] row : lessonRepository.findIntervalsByUserId(userId)) {
+            index.putLesson((Integer) row[0], toEpoch((LocalDateTime) row[1]), List.of());
+        }
+        for (Object[] row : lessonRepository.findLabelPairsByUserId(userId)) {
+            LessonMask lesson = index.lessons.get((Integer) row[0]);
+            if (lesson != null) {
+                index.setBit(lesson, index.bitFor((Integer) row[1]));
+            }
+        }
+
+        synchronized (tutors) {
+            if (generations.getOrDefault(userId, 0L) == stamp) {
+                tutors.put(userId, index);
+            }
+        }
+        return index;
+    }
+
+    private void bump(Integer userId) {
+        generations.merge(userId, 1L, Long::sum);
+    }
+
+    private static boolean containsAll(long[] bits, long[] required) {
+        for (int i = 0; i < required.length; i++) {
+            long word = i < bits.length ? bits[i] : 0L;
+            if ((word & required[i]) != required[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean intersects(long[] bits, long[] any) {
+        int words = Math.min(bits.length, any.length);
+        for (int i = 0; i < words; i++) {
+            if ((bits[i] & any[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Словарь бит и маски уроков одного репетитора; доступ под монитором объекта
+    private static final class TutorLabels {
+        private static final Comparator<LessonMask> BY_TIME =
+                Comparator.<LessonMask>comparingLong(lesson -> lesson.start).thenComparingInt(lesson -> lesson.id);
+
+        private final Map<Integer, Integer> bits = new HashMap<>();
+        private final Deque<Integer> freeBits = new ArrayDeque<>();
+        private final Map<Integer, LessonMask> lessons = new HashMap<>();
+        private final NavigableSet<LessonMask> byTime = new TreeSet<>(BY_TIME);
+        private int nextBit;
+
+        int bitFor(Integer labelId) {
+            Integer bit = bits.get(labelId);
+            if (bit == null) {
+                bit = freeBits.isEmpty() ? nextBit++ : freeBits.poll();
+                bits.put(labelId, bit);
+            }
+            return bit;
+        }
+
+        void putLesson(Integer lessonId, long start, Collection<Integer> labelIds) {
+            removeLesson(lessonId);
+            LessonMask lesson = new LessonMask(lessonId, start, new long[Math.max(1, (nextBit + 63) >>> 6)]);
+            for (Integer labelId : labelIds) {
+                setBit(lesson, bitFor(labelId));
+            }
+            lessons.put(lessonId, lesson);
+            byTime.add(lesson);
+        }
+
+        void removeLesson(Integer lessonId) {
+            LessonMask lesson = lessons.remove(lessonId);
+            if (lesson != null) {
+                byTime.remove(lesson);
+            }
+        }
+
+        // Уроки с началом в [from, to] по возрастанию (начало, id)
+        NavigableSet<LessonMask> between(long from, long to) {
+            if (from > to) {
+                return Collections.emptyNavigableSet();
+            }
+            return byTime.subSet(new LessonMask(Integer.MIN_VALUE, from, null), true,
+                    new LessonMask(Integer.MAX_VALUE, to, null), true);
+        }
+
+        void setBit(LessonMask lesson, int bit) {
+            int word = bit >>> 6;
+            if (word >= lesson.bits.length) {
+                lesson.bits = Arrays.copyOf(lesson.bits, word + 1);
+            }
+            lesson.bits[word] |= 1L << bit;
+        }
+
+        void removeLabel(Integer labelId) {
+            Integer bit = bits.remove(labelId);
+            if (bit == null) {
+                return;
+            }
+            int word = bit >>> 6;
+            long clear = ~(1L << bit);
+            for (LessonMask lesson : lessons.values()) {
+                if (word < lesson.bits.length) {
+                    lesson.bits[word] &= clear;
+                }
+            }
+            freeBits.push(bit);
+        }
+
+        // Маска набора меток. Неизвестные метки: при strict - null (набор невыполним), иначе пропускаются
+        long[] mask(Collection<Integer> labelIds, boolean strict) {
+            long[] mask = new long[Math.max(1, (nextBit + 63) >>> 6)];
+            if (labelIds == null) {
+                return mask;
+            }
+            for (Integer labelId : labelIds) {
+                Integer bit = bits.get(labelId);
+                if (bit == null) {
+                    if (strict) {
+                        return null;
+                    }
+                    continue;
+                }
+                mask[bit >>> 6] |= 1L << bit;
+            }
+            return mask;
+        }
+    }
+
+    private static final class LessonMask {
+        private final int id;
+        private final long start;
+        private long[] bits;
+
+        LessonMask(int id, long start, long[] bits) {
+            this.id = id;
+            this.start = start;
+            this.bits = bits;
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.dto.ChangeEventDto;
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.dto.LessonSeriesDto;
+import org.teacher_calendar.entity.Client;
+import org.teacher_calendar.entity.Lesson;
+import org.teacher_calendar.entity.LessonSeries;
+import org.teacher_calendar.repository.ClientRepository;
+import org.teacher_calendar.repository.LessonRepository;
+import org.teacher_calendar.repository.LessonSeriesRepository;
+import org.teacher_calendar.repository.UserRepository;
+import org.teacher_calendar.util.DtoConverter;
+import org.teacher_calendar.util.IntervalTree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class LessonSeriesService {
+
+    // На сколько дней вперёд проверяется бессрочная серия при создании и изменении
+    private static final int CONFLICT_HORIZON_DAYS = 366;
+
+    private final LessonSeriesRepository lessonSeriesRepository;
+    private final LessonRepository lessonRepository;
+    private final ClientRepository clientRepository;
+    private final UserRepository userRepository;
+    private final WeekLessonCache weekLessonCache;
+    private final DataVersionService dataVersionService;
+    private final LessonConflictIndex lessonConflictIndex;
+    private final LessonLabelIndex lessonLabelIndex;
+    private final UserCache userCache;
+    private final RevenueService revenueService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public LessonSeriesService(
+            LessonSeriesRepository lessonSeriesRepository,
+            LessonRepository lessonRepository,
+            ClientRepository clientRepository,
+            UserRepository userRepository,
+            WeekLessonCache weekLessonCache,
+            DataVersionService dataVersionService,
+            LessonConflictIndex lessonConflictIndex,
+            LessonLabelIndex lessonLabelIndex,
+            UserCache userCache,
+            RevenueService revenueService,
+            ApplicationEventPublisher eventPublisher) {
+        this.lessonSeriesRepository = lessonSeriesRepository;
+        this.lessonRepository = lessonRepository;
+        this.clientRepository = clientRepository;
+        this.userRepository = userRepository;
+        this.weekLessonCache = weekLessonCache;
+        this.dataVersionService = dataVersionService;
+        this.lessonConflictIndex = lessonConflictIndex;
+        this.lessonLabelIndex = lessonLabelIndex;
+        this.userCache = userCache;
+        this.revenueService = revenueService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Получить все серии пользователя
+    public List<LessonSeriesDto> getAllSeries(Integer userId) {
+        return lessonSeriesRepository.findByUserIdWithDetails(userId)
+                .stream()
+                .map(DtoConverter::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // Создать серию
+    public LessonSeriesDto createSeries(LessonSeriesDto seriesDto, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
+        UserCache.CachedUser tutor = userCache.require(userId);
+        Client client = findOwnedClient(seriesDto, userId);
+
+        LessonSeries series = DtoConverter.toEntity(seriesDto, client);
+        series.setId(null);
+        series.setUser(userRepository.getReferenceById(userId));
+        if (series.getTutorTimezone() == null) {
+            series.setTutorTimezone(tutor.timezone());
+        }
+        if (series.getClientTimezone() == null) {
+            series.setClientTimezone(client.getTimezone());
+        }
+        validate(series);
+        checkConflicts(series, userId);
+
+        LessonSeries savedSeries = lessonSeriesRepository.save(series);
+        weekLessonCache.invalidateUser(userId);
+        dataVersionService.bump(userId);
+        publishResync(userId);
+        return DtoConverter.toDto(savedSeries);
+    }
+
+    // Обновить правило серии. Уже материализованные уроки и отмены не трогаем.
+    // null - серии нет или она чужая (404)
+    public LessonSeriesDto updateSeries(Integer id, LessonSeriesDto seriesDto, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
+        LessonSeries series = lessonSeriesRepository.findByIdAndUserId(id, userId).orElse(null);
+        if (series == null) {
+            return null;
+        }
+        Client client = findOwnedClient(seriesDto, userId);
+
+        LessonSeries updatedFields = DtoConverter.toEntity(seriesDto, client);
+        series.setClient(client);
+        series.setStartDateTime(updatedFields.getStartDateTime());
+        series.setDurationMinutes(updatedFields.getDurationMinutes());
+        series.setIntervalDays(updatedFields.getIntervalDays());
+        series.setUntilDate(updatedFields.getUntilDate());
+        series.setDescription(updatedFields.getDescription());
+        if (updatedFields.getTutorTimezone() != null) {
+            series.setTutorTimezone(updatedFields.getTutorTimezone());
+        }
+        if (updatedFields.getClientTimezone() != null) {
+            series.setClientTimezone(updatedFields.getClientTimezone());
+        }
+        validate(series);
+        checkConflicts(series, userId);
+
+        LessonSeries savedSeries = lessonSeriesRepository.save(series);
+        weekLessonCache.invalidateUser(userId);
+        dataVersionService.bump(userId);
+        publishResync(userId);
+        return DtoConverter.toDto(savedSeries);
+    }
+
+    // Удалить серию. Материализованные уроки остаются обычными уроками (series_id -> NULL в БД)
+    public boolean deleteSeries(Integer id, Integer userId) {
+        // Удаление убирает вхождения, по которым под этой блокировкой проверяются конфликты
+        lessonConflictIndex.lockTutor(userId);
+        LessonSeries series = lessonSeriesRepository.findByIdAndUserId(id, userId).orElse(null);
+        if (series == null) {
+            return false;
+        }
+
+        lessonSeriesRepository.delete(series);
+        weekLessonCache.invalidateUser(userId);
+        dataVersionService.bump(userId);
+        publishResync(userId);
+        return true;
+    }
+
+    // Превратить вхождение серии в настоящий урок (перед редактированием, оплатой или метками).
+    // Если вхождение уже материализовано - вернуть существующий урок; null - серии нет или она чужая (404)
+    public LessonDto materializeOccurrence(Integer seriesId, LocalDate occurrenceDate, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
+        LessonSeries series = lessonSeriesRepository.findByIdAndUserId(seriesId, userId).orElse(null);
+        if (series == null) {
+            return null;
+        }
+
+        Lesson existing = lessonRepository.findBySeriesIdAndSeriesOccurrenceDate(seriesId, occurrenceDate)
+                .orElse(null);
+        if (existing != null) {
+            return DtoConverter.toDto(existing);
+        }
+
+        if (!isOccurrence(series, occurrenceDate) || lessonSeriesRepository.isSkipped(seriesId, occurrenceDate)) {
+            throw new RuntimeException("Series " + seriesId + " has no occurrence on " + occurrenceDate);
+        }
+
+        LocalDateTime start = occurrenceDate.atTime(series.getStartDateTime().toLocalTime());
+
+        Lesson lesson = new Lesson();
+        lesson.setDateTime(start);
+        lesson.setDurationMinutes(series.getDurationMinutes());
+        lesson.setEndTime(start.plusMinutes(series.getDurationMinutes()));
+        lesson.setDescription(series.getDescription());
+        lesson.setTutorTimezone(series.getTutorTimezone());
+        lesson.setClientTimezone(series.getClientTimezone());
+        lesson.setClient(series.getClient());
+        lesson.setUser(series.getUser());
+        lesson.setSeries(series);
+        lesson.setSeriesOccurrenceDate(occurrenceDate);
+
+        Lesson savedLesson = lessonRepository.save(lesson);
+
+        // Вхождение уже было видно в календаре, но слот мог занять обычный урок
+        List<Integer> conflictIds = lessonConflictIndex.reserve(userId, savedLesson.getId(), start, savedLesson.getEndTime());
+        if (!conflictIds.isEmpty()) {
+            throw new LessonConflictException(lessonRepository.findAllById(conflictIds).stream()
+                    .map(DtoConverter::toDto)
+                    .collect(Collectors.toList()));
+        }
+
+        revenueService.lessonAdded(savedLesson);
+        lessonLabelIndex.lessonChanged(userId, savedLesson.getId(), start, List.of());
+        weekLessonCache.invalidateDate(userId, start);
+        dataVersionService.bump(userId);
+        publishResync(userId);
+        return DtoConverter.toDto(savedLesson);
+    }
+
+    // Отменить одно вхождение серии (вместе с его уроком, если он уже был материализован).
+    // false - серии нет или она чужая (404)
+    public boolean skipOccurrence(Integer seriesId, LocalDate occurrenceDate, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
+        LessonSeries series = lessonSeriesRepository.findByIdAndUserId(seriesId, userId).orElse(null);
+        if (series == null) {
+            return false;
+        }
+
+        lessonRepository.findBySeriesIdAndSeriesOccurrenceDate(seriesId, occurrenceDate)
+                .ifPresent(lesson -> {
+                    revenueService.lessonRemoved(lesson);
+                    lessonRepository.delete(lesson);
+                    lessonConflictIndex.release(userId, lesson.getId());
+                    lessonLabelIndex.lessonRemoved(userId, lesson.getId());
+                    weekLessonCache.invalidateDate(userId, lesson.getDateTime());
+                });
+
+        recordSkippedDate(series.getId(), occurrenceDate);
+        weekLessonCache.invalidateDate(userId, occurrenceDate.atStartOfDay());
+        dataVersionService.bump(userId);
+        publishResync(userId);
+        return true;
+    }
+
+    // Вставляет одну строку исключения, коллекция skippedDates серии не загружается
+    public void recordSkippedDate(Integer seriesId, LocalDate occurrenceDate) {
+        lessonSeriesRepository.addSkippedDate(seriesId, occurrenceDate);
+    }
+
+    // Проверить вхождения правила серии на пересечения с уроками и вхождениями других серий.
+    // Вызывается под блокировкой репетитора. Бессрочная серия проверяется на CONFLICT_HORIZON_DAYS
+    // вперёд: уроки, созданные позже, сами проверяются по вхождениям серий в LessonService.
+    private void checkConflicts(LessonSeries series, Integer userId) {
+        LocalDateTime from = series.getStartDateTime();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate horizon = (from.toLocalDate().isAfter(today) ? from.toLocalDate() : today)
+                .plusDays(CONFLICT_HORIZON_DAYS);
+        if (series.getUntilDate() != null && series.getUntilDate().isBefore(horizon)) {
+            horizon = series.getUntilDate();
+        }
+        LocalDateTime to = horizon.atTime(LocalTime.MAX);
+
+        // Отменённые и уже материализованные даты этой серии не проверяем:
+        // у материализованных уроков свои интервалы в индексе
+        Set<LocalDate> taken = new HashSet<>();
+        if (series.getId() != null) {
+            Set<Integer> ids = Set.of(series.getId());
+            for (Object[] row : lessonSeriesRepository.findSkippedDatesInRange(ids, from.toLocalDate(), horizon)) {
+                taken.add((LocalDate) row[1]);
+            }
+            for (Object[] row : lessonRepository.findMaterializedOccurrences(ids, from.toLocalDate(), horizon)) {
+                taken.add((LocalDate) row[1]);
+            }
+        }
+
+        // Вхождения других серий - в дерево интервалов, id узла - индекс в списке
+        List<LessonDto> otherOccurrences = new ArrayList<>();
+        IntervalTree otherTree = new IntervalTree();
+        for (LessonDto occurrence : expandOccurrences(userId, from.minusDays(1), to)) {
+            if (!occurrence.getSeriesId().equals(series.getId())) {
+                otherTree.put(otherOccurrences.size(), toEpoch(occurrence.getDateTime()), toEpoch(occurrence.getEndTime()));
+                otherOccurrences.add(occurrence);
+            }
+        }
+
+        Set<Integer> lessonIds = new LinkedHashSet<>();
+        Set<Integer> occurrenceIndexes = new LinkedHashSet<>();
+        for (LocalDateTime start : occurrencesInRange(series, from, to)) {
+            if (taken.contains(start.toLocalDate())) {
+                continue;
+            }
+            LocalDateTime end = start.plusMinutes(series.getDurationMinutes());
+            lessonIds.addAll(lessonConflictIndex.overlapping(userId, start, end));
+            occurrenceIndexes.addAll(otherTree.overlapping(toEpoch(start), toEpoch(end)));
+        }
+
+        if (lessonIds.isEmpty() && occurrenceIndexes.isEmpty()) {
+            return;
+        }
+        List<LessonDto> conflicts = new ArrayList<>();
+        lessonRepository.findAllById(lessonIds).stream()
+                .map(DtoConverter::toDto)
+                .forEach(conflicts::add);
+        for (Integer index : occurrenceIndexes) {
+            conflicts.add(otherOccurrences.get(index));
+        }
+        throw new LessonConflictException(conflicts);
+    }
+
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Вхождения серий у подписчиков /api/events/stream вычисляются из правила и не имеют своего id,
+    // поэтому любое изменение серии - сигнал перечитать календарь
+    private void publishResync(Integer userId) {
+        eventPublisher.publishEvent(new CalendarChangeEvent(userId, ChangeEventDto.resync()));
+    }
+
+    // Вхождения серий в [from, to], которые ещё не стали уроками и не отменены.
+    // Стоимость - O(серий + вхождений в диапазоне), а не O(длины серии)
+    @Transactional(readOnly = true)
+    public List<LessonDto> expandOccurrences(Integer userId, LocalDateTime from, LocalDateTime to) {
+        List<LessonSeries> seriesList = lessonSeriesRepository.findActiveInRange(userId, from.toLocalDate(), to);
+        if (seriesList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> seriesIds = seriesList.stream()
+                .map(LessonSeries::getId)
+                .collect(Collectors.toSet());
+        LocalDate fromDate = from.toLocalDate();
+        LocalDate toDate = to.toLocalDate();
+
+        // Слоты, которые уже заняты: отменённые и материализованные вхождения
+        Map<Integer, Set<LocalDate>> taken = new HashMap<>();
+        for (Object[] row : lessonSeriesRepository.findSkippedDatesInRange(seriesIds, fromDate, toDate)) {
+            taken.computeIfAbsent((Integer) row[0], id -> new HashSet<>()).add((LocalDate) row[1]);
+        }
+        for (Object[] row : lessonRepository.findMaterializedOccurrences(seriesIds, fromDate, toDate)) {
+            taken.computeIfAbsent((Integer) row[0], id -> new HashSet<>()).add((LocalDate) row[1]);
+        }
+
+        List<LessonDto> occurrences = new ArrayList<>();
+        for (LessonSeries series : seriesList) {
+            Set<LocalDate> seriesTaken = taken.getOrDefault(series.getId(), Set.of());
+            ClientDto client = DtoConverter.toDto(series.getClient());
+
+            for (LocalDateTime start : occurrencesInRange(series, from, to)) {
+                if (!seriesTaken.contains(start.toLocalDate())) {
+                    occurrences.add(DtoConverter.toOccurrenceDto(series, client, start));
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    // Начала вхождений серии в [from, to]: сразу прыгаем к первому вхождению диапазона
+    static List<LocalDateTime> occurrencesInRange(LessonSeries series, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> result = new ArrayList<>();
+        LocalDateTime first = series.getStartDateTime();
+        long step = series.getIntervalDays();
+
+        long index = 0;
+        if (from.isAfter(first)) {
+            long days = ChronoUnit.DAYS.between(first.toLocalDate(), from.toLocalDate());
+            index = Math.floorDiv(days, step);
+        }
+
+        LocalDateTime occurrence = first.plusDays(index * step);
+        while (occurrence.isBefore(from)) {
+            index++;
+            occurrence = first.plusDays(index * step);
+        }
+
+        LocalDate untilDate = series.getUntilDate();
+        while (!occurrence.isAfter(to)) {
+            if (untilDate != null && occurrence.toLocalDate().isAfter(untilDate)) {
+                break;
+            }
+            result.add(occurrence);
+            index++;
+            occurrence = first.plusDays(index * step);
+        }
+        return result;
+    }
+
+    // Попадает ли дата на шаг серии (без учёта отмен)
+    private static boolean isOccurrence(LessonSeries series, LocalDate date) {
+        LocalDate firstDate = series.getStartDateTime().toLocalDate();
+        if (date.isBefore(firstDate)) {
+            return false;
+        }
+        if (series.getUntilDate() != null && date.isAfter(series.getUntilDate())) {
+            return false;
+        }
+        return ChronoUnit.DAYS.between(firstDate, date) % series.getIntervalDays() == 0;
+    }
+
+    private static void validate(LessonSeries series) {
+        if (series.getStartDateTime() == null) {
+            throw new RuntimeException("Series start is required");
+        }
+        if (series.getIntervalDays() == null || series.getIntervalDays() < 1) {
+            throw new RuntimeException("Series interval must be at least 1 day");
+        }
+        if (series.getDurationMinutes() == null || series.getDurationMinutes() < 1) {
+            throw new RuntimeException("Series duration must be positive");
+        }
+        if (series.getUntilDate() != null
+                && series.getUntilDate().isBefore(series.getStartDateTime().toLocalDate())) {
+            throw new RuntimeException("Series cannot end before it starts");
+        }
+    }
+
+    private Client findOwnedClient(LessonSeriesDto seriesDto, Integer userId) {
+        if (seriesDto.getClient() == null || seriesDto.getClient().getId() == null) {
+            throw new RuntimeException("Client is required");
+        }
+        Integer clientId = seriesDto.getClient().getId();
+        // Только свой клиент - как при записи уроков
+        return clientRepository.findByIdAndUserId(clientId, userId)
+                .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
+    }
+}
@@ -1,88 +1,379 @@
 package org.teacher_calendar.service;
 
+import org.teacher_calendar.dto.ChangeEventDto;
+import org.teacher_calendar.dto.LabelDto;
 import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.dto.LessonPageDto;
 import org.teacher_calendar.entity.Client;
 import org.teacher_calendar.entity.Label;
 import org.teacher_calendar.entity.Lesson;
 import org.teacher_calendar.entity.User;
 import org.teacher_calendar.repository.ClientRepository;
 import org.teacher_calendar.repository.LabelRepository;
+import org.teacher_calendar.repository.LessonReadRepository;
 import org.teacher_calendar.repository.LessonRepository;
 import org.teacher_calendar.repository.UserRepository;
+import org.teacher_calendar.repository.projection.LessonRow;
+import org.teacher_calendar.repository.projection.RevenueContribution;
 import org.teacher_calendar.util.DtoConverter;
+import org.teacher_calendar.util.LessonCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.EntityManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class LessonService {
 
+    // Сколько уроков выгрузки держим в контексте персистентности до очистки
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
+    // Максимум уроков в одном массовом создании и шаг сброса батча (= hibernate.jdbc.batch_size)
+    private static final int MAX_BULK_SIZE = 10_000;
+    private static final int BULK_FLUSH_SIZE = 50;
+
+    // Насколько раньше начала урока ищем вхождения серий, которые могут на него заходить
+    private static final int OCCURRENCE_LOOKBACK_DAYS = 1;
+
+    // Границы интервала, когда клиент их не передал
+    private static final LocalDateTime MIN_DATE_TIME = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final LessonRepository lessonRepository;
+    private final LessonReadRepository lessonReadRepository;
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
     private final LabelRepository labelRepository;
+    private final EntityManager entityManager;
+    private final WeekLessonCache weekLessonCache;
+    private final DataVersionService dataVersionService;
+    private final LessonSeriesService lessonSeriesService;
+    private final LessonConflictIndex lessonConflictIndex;
+    private final LessonLabelIndex lessonLabelIndex;
+    private final LabelCache labelCache;
+    private final UserCache userCache;
+    private final RevenueService revenueService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public LessonService(
             LessonRepository lessonRepository,
+            LessonReadRepository lessonReadRepository,
             ClientRepository clientRepository,
             UserRepository userRepository,
-            LabelRepository labelRepository) {
+            LabelRepository labelRepository,
+            EntityManager entityManager,
+            WeekLessonCache weekLessonCache,
+            DataVersionService dataVersionService,
+            LessonSeriesService lessonSeriesService,
+            LessonConflictIndex lessonConflictIndex,
+            LessonLabelIndex lessonLabelIndex,
+            LabelCache labelCache,
+            UserCache userCache,
+            RevenueService revenueService,
+            ApplicationEventPublisher eventPublisher) {
         this.lessonRepository = lessonRepository;
+        this.lessonReadRepository = lessonReadRepository;
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
         this.labelRepository = labelRepository;
+        this.entityManager = entityManager;
+        this.weekLessonCache = weekLessonCache;
+        this.dataVersionService = dataVersionService;
+        this.lessonSeriesService = lessonSeriesService;
+        this.lessonConflictIndex = lessonConflictIndex;
+        this.lessonLabelIndex = lessonLabelIndex;
+        this.labelCache = labelCache;
+        this.userCache = userCache;
+        this.revenueService = revenueService;
+        this.eventPublisher = eventPublisher;
     }
 
-    // Получить все уроки для текущего пользователя
-    public List<LessonDto> getAllLessons(Integer userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // Получить страницу истории уроков, упорядоченной по (dateTime, id)
+    public LessonPageDto getLessonsPage(String cursor, int pageSize, Integer userId) {
+        userCache.require(userId);
+
+        LessonCursor after = LessonCursor.decode(cursor);
 
-        return lessonRepository.findByUser(user)
-                .stream()
+        // Берём на один урок больше, чтобы понять, есть ли следующая страница
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Lesson> lessons = after == null
+                ? lessonRepository.findPageForUser(userId, limit)
+                : lessonRepository.findPageForUserAfter(userId, after.getDateTime(), after.getId(), limit);
+
+        boolean hasMore = lessons.size() > pageSize;
+        if (hasMore) {
+            lessons = new ArrayList<>(lessons.subList(0, pageSize));
+        }
+
+        if (!lessons.isEmpty()) {
+            lessonRepository.fetchLabels(lessons);
+        }
+
+        List<LessonDto> items = lessons.stream()
                 .map(DtoConverter::toDto)
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            Lesson last = lessons.get(lessons.size() - 1);
+            nextCursor = new LessonCursor(last.getDateTime(), last.getId()).encode();
+        }
+
+        return new LessonPageDto(items, nextCursor);
+    }
+
+    // Выгрузить всю историю уроков порциями: каждая порция отдаётся consumer'у,
+    // после чего контекст персистентности очищается, так что память не растёт с историей
+    @Transactional(readOnly = true)
+    public void exportLessons(Integer userId, Consumer<List<LessonDto>> chunkConsumer) {
+        userCache.require(userId);
+
+        try (Stream<Lesson> lessons = lessonRepository.streamAllForUser(userId)) {
+            List<Lesson> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            lessons.forEach(lesson -> {
+                chunk.add(lesson);
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    flushExportChunk(chunk, chunkConsumer);
+                }
+            });
+            if (!chunk.isEmpty()) {
+                flushExportChunk(chunk, chunkConsumer);
+            }
+        }
+    }
+
+    private void flushExportChunk(List<Lesson> chunk, Consumer<List<LessonDto>> chunkConsumer) {
+        lessonRepository.fetchLabels(chunk);
+
+        chunkConsumer.accept(chunk.stream()
+                .map(DtoConverter::toDto)
+                .collect(Collectors.toList()));
+
+        chunk.clear();
+        entityManager.clear();
     }
 
     // Получить уроки по неделе для текущего пользователя
+    @Transactional(readOnly = true)
     public List<LessonDto> getLessonsForWeek(LocalDate weekStart, Integer userId) {
+        List<LessonDto> cached = weekLessonCache.get(userId, weekStart);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = weekLessonCache.stamp(userId);
+
         LocalDateTime startOfWeek = weekStart.atStartOfDay();
         LocalDateTime endOfWeek = weekStart.plusDays(6).atTime(LocalTime.MAX);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Существование репетитора уже проверил TokenAuthenticationFilter - лишнего запроса к users нет
+        // Проекции вместо сущностей: уроки с клиентом одним запросом, метки - вторым
+        List<LessonDto> lessons = DtoConverter.toDtos(
+                lessonReadRepository.findWeekRows(userId, startOfWeek, endOfWeek),
+                lessonReadRepository.findWeekLabelRows(userId, startOfWeek, endOfWeek));
+
+        // Добавляем вхождения повторяющихся занятий, которые ещё не стали уроками
+        List<LessonDto> occurrences = lessonSeriesService.expandOccurrences(userId, startOfWeek, endOfWeek);
+        if (!occurrences.isEmpty()) {
+            lessons.addAll(occurrences);
+            lessons.sort(Comparator.comparing(LessonDto::getDateTime));
+        }
 
-        return lessonRepository.findLessonsForWeek(startOfWeek, endOfWeek, user)
-                .stream()
-                .map(DtoConverter::toDto)
-                .collect(Collectors.toList());
+        weekLessonCache.put(userId, weekStart, lessons, stamp);
+        return lessons;
     }
 
     // Создать новый урок с метками
     public LessonDto createLesson(LessonDto lessonDto, Integer userId) {
-        // Найдем клиента
-        Client client = clientRepository.findById(lessonDto.getClient().getId())
+        lessonConflictIndex.lockTutor(userId);
+
+        // Найдем клиента (только своего)
+        Client client = clientRepository.findByIdAndUserId(lessonDto.getClient().getId(), userId)
                 .orElseThrow(() -> new RuntimeException("Client not found with id: " + lessonDto.getClient().getId()));
 
-        // Найдем пользователя
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Пользователь - из кэша, в урок попадает только ссылка на него
+        UserCache.CachedUser tutor = userCache.require(userId);
 
         Lesson lesson = DtoConverter.toEntity(lessonDto, client);
-        lesson.setUser(user);
+        lesson.setUser(userRepository.getReferenceById(userId));
+        applyDefaults(lesson, tutor.timezone(), client);
+
+        // Добавляем метки, если есть (только метки пользователя)
+        if (lessonDto.getLabelIds() != null && !lessonDto.getLabelIds().isEmpty()) {
+            lesson.setLabels(labelReferences(userId, lessonDto.getLabelIds()));
+        }
 
-        // Устанавливаем часовые пояса
+        Lesson savedLesson = lessonRepository.save(lesson);
+        reserveSlot(userId, savedLesson, occurrencesAround(userId, savedLesson));
+        revenueService.lessonAdded(savedLesson);
+        lessonLabelIndex.lessonChanged(userId, savedLesson.getId(), savedLesson.getDateTime(), labelIdsOf(savedLesson));
+        weekLessonCache.invalidateDate(userId, savedLesson.getDateTime());
+        dataVersionService.bump(userId);
+        return published(userId, ChangeEventDto.CREATED, DtoConverter.toDto(savedLesson, labelDtos(userId)));
+    }
+
+    // Создать пачку уроков (например, семестр) одной транзакцией.
+    // Клиенты и метки читаются один раз на всю пачку, вставки уходят JDBC-батчами
+    public List<LessonDto> createLessons(List<LessonDto> lessonDtos, Integer userId) {
+        if (lessonDtos == null || lessonDtos.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (lessonDtos.size() > MAX_BULK_SIZE) {
+            throw new RuntimeException("Too many lessons in one request: " + lessonDtos.size()
+                    + " (max " + MAX_BULK_SIZE + ")");
+        }
+
+        lessonConflictIndex.lockTutor(userId);
+
+        UserCache.CachedUser tutor = userCache.require(userId);
+        User user = userRepository.getReferenceById(userId);
+
+        // Все клиенты пачки одним запросом
+        Set<Integer> clientIds = new HashSet<>();
+        for (LessonDto dto : lessonDtos) {
+            if (dto.getClient() == null || dto.getClient().getId() == null) {
+                throw new RuntimeException("Client is required for every lesson");
+            }
+            clientIds.add(dto.getClient().getId());
+        }
+        Map<Integer, Client> clients = new HashMap<>();
+        for (Client client : clientRepository.findAllById(clientIds)) {
+            if (client.getUser().getId().equals(userId)) {
+                clients.put(client.getId(), client);
+            }
+        }
+
+        // Метки берутся из словаря пользователя, в уроки попадают ссылками без загрузки строк
+        Function<Integer, LabelDto> labelDtos = labelDtos(userId);
+
+        // Вхождения серий на весь диапазон пачки разворачиваем один раз
+        List<LessonDto> occurrences = occurrencesForBatch(userId, lessonDtos);
+
+        List<LessonDto> created = new ArrayList<>(lessonDtos.size());
+        List<RevenueContribution> contributions = new ArrayList<>(lessonDtos.size());
+        for (int i = 0; i < lessonDtos.size(); i++) {
+            LessonDto dto = lessonDtos.get(i);
+            Client client = clients.get(dto.getClient().getId());
+            if (client == null) {
+                throw new RuntimeException("Client not found with id: " + dto.getClient().getId());
+            }
+
+            Lesson lesson = DtoConverter.toEntity(dto, client);
+            lesson.setId(null);
+            lesson.setUser(user);
+            applyDefaults(lesson, tutor.timezone(), client);
+
+            lesson.setLabels(labelReferences(userId, dto.getLabelIds()));
+
+            entityManager.persist(lesson);
+            reserveSlot(userId, lesson, occurrences);
+            created.add(DtoConverter.toDto(lesson, labelDtos));
+            contributions.add(RevenueContribution.of(lesson));
+
+            // Сбрасываем очередной батч в БД и освобождаем контекст персистентности
+            if ((i + 1) % BULK_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        revenueService.lessonsAdded(contributions);
+
+        // Пачка обычно покрывает много недель - проще сбросить все недели пользователя
+        weekLessonCache.invalidateUser(userId);
+        lessonLabelIndex.invalidateUser(userId);
+        dataVersionService.bump(userId);
+        // Пачка на много недель - подписчикам дешевле перечитать календарь, чем получить сотни событий
+        eventPublisher.publishEvent(new CalendarChangeEvent(userId, ChangeEventDto.resync()));
+        return created;
+    }
+
+    // Проверить, что урок не пересекается с другими уроками и вхождениями серий, и занять его время.
+    // При пересечении бросает LessonConflictException, транзакция откатывается
+    private void reserveSlot(Integer userId, Lesson lesson, List<LessonDto> occurrences) {
+        if (lesson.getDateTime() == null) {
+            return;
+        }
+        LocalDateTime start = lesson.getDateTime();
+        LocalDateTime end = LessonConflictIndex.effectiveEnd(start, lesson.getEndTime(), lesson.getDurationMinutes());
+
+        List<LessonDto> conflicts = new ArrayList<>();
+        for (LessonDto occurrence : occurrences) {
+            if (occurrence.getDateTime().isBefore(end) && start.isBefore(occurrence.getEndTime())) {
+                conflicts.add(occurrence);
+            }
+        }
+
+        if (conflicts.isEmpty()) {
+            List<Integer> conflictIds = lessonConflictIndex.reserve(userId, lesson.getId(), start, end);
+            if (!conflictIds.isEmpty()) {
+                lessonRepository.findAllById(conflictIds).stream()
+                        .map(DtoConverter::toDto)
+                        .forEach(conflicts::add);
+            }
+        }
+
+        if (!conflicts.isEmpty()) {
+            throw new LessonConflictException(conflicts);
+        }
+    }
+
+    // Вхождения серий, которые могут пересекаться с уроком
+    private List<LessonDto> occurrencesAround(Integer userId, Lesson lesson) {
+        if (lesson.getDateTime() == null) {
+            return new ArrayList<>();
+        }
+        LocalDateTime start = lesson.getDateTime();
+        LocalDateTime end = LessonConflictIndex.effectiveEnd(start, lesson.getEndTime(), lesson.getDurationMinutes());
+        return lessonSeriesService.expandOccurrences(userId, start.minusDays(OCCURRENCE_LOOKBACK_DAYS), end);
+    }
+
+    // Вхождения серий на весь диапазон пачки уроков
+    private List<LessonDto> occurrencesForBatch(Integer userId, List<LessonDto> lessonDtos) {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (LessonDto dto : lessonDtos) {
+            LocalDateTime start = dto.getDateTime();
+            if (start == null) {
+                continue;
+            }
+            LocalDateTime end = LessonConflictIndex.effectiveEnd(start, dto.getEndTime(), dto.getDurationMinutes());
+            if (from == null || start.isBefore(from)) {
+                from = start;
+            }
+            if (to == null || end.isAfter(to)) {
+                to = end;
+            }
+        }
+        if (from == null) {
+            return new ArrayList<>();
+        }
+        return lessonSeriesService.expandOccurrences(userId, from.minusDays(OCCURRENCE_LOOKBACK_DAYS), to);
+    }
+
+    // Часовые пояса и время окончания по умолчанию для нового урока
+    private void applyDefaults(Lesson lesson, String tutorTimezone, Client client) {
         if (lesson.getTutorTimezone() == null) {
-            lesson.setTutorTimezone(user.getTimezone());
+            lesson.setTutorTimezone(tutorTimezone);
         }
         if (lesson.getClientTimezone() == null) {
             lesson.setClientTimezone(client.getTimezone());
@@ -93,33 +384,28 @@ public class LessonService {
             LocalDateTime endTime = lesson.getDateTime().plusMinutes(lesson.getDurationMinutes());
             lesson.setEndTime(endTime);
         }
+    }
 
-        // Добавляем метки, если есть
-        if (lessonDto.getLabelIds() != null && !lessonDto.getLabelIds().isEmpty()) {
-            List<Label> labels = labelRepository.findAllById(lessonDto.getLabelIds());
-
-            // Проверяем, что метки принадлежат пользователю
-            List<Label> userLabels = labels.stream()
-                    .filter(label -> label.getUser().getId().equals(userId))
-                    .collect(Collectors.toList());
+    // Обновить урок с метками. null - урока нет или он чужой (404)
+    public LessonDto updateLesson(Integer id, LessonDto lessonDto, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
 
-            lesson.setLabels(new ArrayList<>(userLabels));
+        Lesson existingLesson = lessonRepository.findByIdAndUserId(id, userId).orElse(null);
+        if (existingLesson == null) {
+            return null;
         }
+        RevenueContribution revenueBefore = RevenueContribution.of(existingLesson);
 
-        Lesson savedLesson = lessonRepository.save(lesson);
-        return DtoConverter.toDto(savedLesson);
-    }
+        // Клиент не передан - урок остаётся у прежнего клиента
+        Client client = lessonDto.getClient() == null || lessonDto.getClient().getId() == null
+                ? existingLesson.getClient()
+                : clientRepository.findByIdAndUserId(lessonDto.getClient().getId(), userId)
+                        .orElseThrow(() -> new RuntimeException("Client not found with id: " + lessonDto.getClient().getId()));
 
-    // Обновить урок с метками
-    public LessonDto updateLesson(Integer id, LessonDto lessonDto, Integer userId) {
-        Lesson existingLesson = lessonRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Lesson not found with id: " + id));
-
-        Client client = clientRepository.findById(lessonDto.getClient().getId())
-                .orElseThrow(() -> new RuntimeException("Client not found with id: " + lessonDto.getClient().getId()));
+        userCache.require(userId);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Урок мог переехать на другую неделю: сбрасываем и старую, и новую
+        weekLessonCache.invalidateDate(userId, existingLesson.getDateTime());
 
         // Обновляем основные поля через DtoConverter
         Lesson updatedFields = DtoConverter.toEntity(lessonDto, client);
@@ -135,91 +421,272 @@ public class LessonService {
         existingLesson.setIsTrial(updatedFields.getIsTrial());
         existingLesson.setTutorTimezone(updatedFields.getTutorTimezone());
         existingLesson.setClientTimezone(updatedFields.getClientTimezone());
-        existingLesson.setUser(user);
 
         // Обновляем метки
         if (lessonDto.getLabelIds() != null) {
-            List<Label> labels = labelRepository.findAllById(lessonDto.getLabelIds());
-
-            // Проверяем, что метки принадлежат пользователю
-            List<Label> userLabels = labels.stream()
-                    .filter(label -> label.getUser().getId().equals(userId))
-                    .collect(Collectors.toList());
-
-            existingLesson.setLabels(new ArrayList<>(userLabels));
+            existingLesson.setLabels(labelReferences(userId, lessonDto.getLabelIds()));
         } else {
             existingLesson.setLabels(new ArrayList<>());
         }
 
         Lesson updatedLesson = lessonRepository.save(existingLesson);
-        return DtoConverter.toDto(updatedLesson);
+        reserveSlot(userId, updatedLesson, occurrencesAround(userId, updatedLesson));
+        revenueService.lessonChanged(revenueBefore, RevenueContribution.of(updatedLesson));
+        lessonLabelIndex.lessonChanged(userId, updatedLesson.getId(), updatedLesson.getDateTime(), labelIdsOf(updatedLesson));
+        weekLessonCache.invalidateDate(userId, updatedLesson.getDateTime());
+        dataVersionService.bump(userId);
+        return published(userId, ChangeEventDto.UPDATED, DtoConverter.toDto(updatedLesson, labelDtos(userId)));
+    }
+
+    // Обновить флаги урока одним UPDATE; null в параметре - флаг не меняется.
+    // Возвращает null, если урока нет или он чужой (404)
+    public LessonDto updateLessonStatus(Integer id, Boolean isPaid, Boolean requiresPreparation,
+                                        Boolean homeworkSent, Boolean isTrial, Integer userId) {
+        // Оплата меняет выручку: нужен прежний флаг, а смены флага одного репетитора идут по очереди
+        RevenueContribution revenueBefore = null;
+        if (isPaid != null) {
+            lessonConflictIndex.lockTutor(userId);
+            revenueBefore = revenueService.contributionOf(id, userId);
+        }
+
+        int updated = lessonRepository.updateStatus(id, userId, isPaid, requiresPreparation, homeworkSent, isTrial);
+        if (updated == 0) {
+            return null;
+        }
+        if (revenueBefore != null) {
+            revenueService.lessonChanged(revenueBefore, revenueBefore.withPaid(isPaid));
+        }
+
+        LessonDto lesson = readLesson(id);
+        weekLessonCache.invalidateDate(userId, lesson.getDateTime());
+        dataVersionService.bump(userId);
+        return published(userId, ChangeEventDto.UPDATED, lesson);
+    }
+
+    // Заменить набор меток урока: удаляются и добавляются только изменившиеся строки lesson_labels.
+    // null - урока нет или он чужой (404)
+    public LessonDto updateLessonLabels(Integer id, List<Integer> labelIds, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
+        if (!lessonRepository.existsByIdAndUserId(id, userId)) {
+            return null;
+        }
+
+        // Чужие и несуществующие метки отсекаются по словарю ещё до запросов
+        Set<Integer> wanted = new HashSet<>(labelCache.ownedIds(userId, labelIds));
+        Set<Integer> current = new HashSet<>(lessonRepository.findLabelIdsByLessonId(id));
+
+        Set<Integer> toRemove = new HashSet<>(current);
+        toRemove.removeAll(wanted);
+        Set<Integer> toAdd = new HashSet<>(wanted);
+        toAdd.removeAll(current);
+
+        boolean changed = false;
+        if (!toRemove.isEmpty()) {
+            changed |= lessonRepository.removeLabels(id, toRemove) > 0;
+        }
+        if (!toAdd.isEmpty()) {
+            changed |= lessonRepository.addLabels(id, toAdd, userId) > 0;
+        }
+
+        LessonDto lesson = readLesson(id);
+        if (changed) {
+            lessonLabelIndex.lessonChanged(userId, id, lesson.getDateTime(), lesson.getLabelIds());
+            weekLessonCache.invalidateDate(userId, lesson.getDateTime());
+            dataVersionService.bump(userId);
+            published(userId, ChangeEventDto.UPDATED, lesson);
+        }
+        return lesson;
+    }
+
+    // Уроки с метками "все из" allOf и "любая из" anyOf в интервале [from, to] - по битовому индексу меток
+    @Transactional(readOnly = true)
+    public List<LessonDto> getLessonsByLabels(List<Integer> allOf, List<Integer> anyOf,
+                                              LocalDateTime from, LocalDateTime to, int limit, Integer userId) {
+        if ((allOf == null || allOf.isEmpty()) && (anyOf == null || anyOf.isEmpty())) {
+            throw new RuntimeException("At least one label is required");
+        }
+
+        List<Integer> lessonIds = lessonLabelIndex.find(userId, allOf, anyOf, from, to, limit);
+        if (lessonIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return DtoConverter.toDtos(
+                lessonReadRepository.findRowsByIds(lessonIds),
+                lessonReadRepository.findLabelRowsByIds(lessonIds));
+    }
+
+    // Ссылки на метки пользователя без загрузки строк; чужие и несуществующие id отбрасываются по словарю
+    private List<Label> labelReferences(Integer userId, List<Integer> labelIds) {
+        List<Label> labels = new ArrayList<>();
+        for (Integer labelId : labelCache.ownedIds(userId, labelIds)) {
+            labels.add(labelRepository.getReferenceById(labelId));
+        }
+        return labels;
     }
 
-    // Удалить урок
-    public boolean deleteLesson(Integer id) {
-        if (!lessonRepository.existsById(id)) {
+    // Поля меток для ответа берутся из словаря, а не из (возможно, неинициализированных) сущностей
+    private Function<Integer, LabelDto> labelDtos(Integer userId) {
+        Map<Integer, LabelCache.CachedLabel> labels = labelCache.labelsOf(userId);
+        return labelId -> {
+            LabelCache.CachedLabel label = labels.get(labelId);
+            return label != null ? label.toDto() : null;
+        };
+    }
+
+    private static List<Integer> labelIdsOf(Lesson lesson) {
+        return lesson.getLabels().stream()
+                .map(Label::getId)
+                .collect(Collectors.toList());
+    }
+
+    // Урок из проекций, без загрузки сущности и её связей
+    private LessonDto readLesson(Integer id) {
+        List<LessonRow> rows = lessonReadRepository.findLessonRow(id)
+                .map(List::of)
+                .orElseThrow(() -> new RuntimeException("Lesson not found with id: " + id));
+        return DtoConverter.toDtos(rows, lessonReadRepository.findLessonLabelRows(id)).get(0);
+    }
+
+    // Изменение урока подписчикам /api/events/stream; уйдёт только после коммита (CalendarEventHub)
+    private LessonDto published(Integer userId, String action, LessonDto lesson) {
+        eventPublisher.publishEvent(new CalendarChangeEvent(userId,
+                new ChangeEventDto(ChangeEventDto.LESSON, action, lesson.getId(), lesson)));
+        return lesson;
+    }
+
+    // Удалить урок. false - урока нет или он чужой (404)
+    public boolean deleteLesson(Integer id, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
+        Lesson lesson = lessonRepository.findByIdAndUserId(id, userId).orElse(null);
+        if (lesson == null) {
             return false;
         }
 
-        lessonRepository.deleteById(id);
+        // Удалённое вхождение серии становится отменённым, иначе оно снова развернётся из правила
+        if (lesson.getSeries() != null && lesson.getSeriesOccurrenceDate() != null) {
+            lessonSeriesService.recordSkippedDate(lesson.getSeries().getId(), lesson.getSeriesOccurrenceDate());
+        }
+
+        revenueService.lessonRemoved(lesson);
+        lessonRepository.delete(lesson);
+        lessonConflictIndex.release(userId, lesson.getId());
+        lessonLabelIndex.lessonRemoved(userId, lesson.getId());
+        weekLessonCache.invalidateDate(userId, lesson.getDateTime());
+        dataVersionService.bump(userId);
+        eventPublisher.publishEvent(new CalendarChangeEvent(userId,
+                new ChangeEventDto(ChangeEventDto.LESSON, ChangeEventDto.DELETED, id, null)));
         return true;
     }
 
-    // Получить уроки по клиенту
-    public List<LessonDto> getLessonsByClient(Integer clientId) {
-        return lessonRepository.findByClientId(clientId)
-                .stream()
-                .map(DtoConverter::toDto)
-                .collect(Collectors.toList());
+    // Прошедшие неоплаченные уроки репетитора по индексу (user_id, is_paid, date_time).
+    // Время уроков в UTC, как и в ClientService.getClientsWithStats
+    @Transactional(readOnly = true)
+    public List<LessonDto> getUnpaidLessons(Integer userId) {
+        userCache.require(userId);
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        return DtoConverter.toDtos(
+                lessonReadRepository.findUnpaidRows(userId, now),
+                lessonReadRepository.findUnpaidLabelRows(userId, now));
     }
 
-    // Добавить метку к уроку (индивидуально)
-    public LessonDto addLabelToLesson(Integer lessonId, Integer labelId, Integer userId) {
-        Lesson lesson = lessonRepository.findById(lessonId)
-                .orElseThrow(() -> new RuntimeException("Lesson not found"));
+    // Получить уроки по клиенту. null - клиента нет или он чужой (404)
+    @Transactional(readOnly = true)
+    public List<LessonDto> getLessonsByClient(Integer clientId, Integer userId) {
+        if (!clientRepository.existsByIdAndUserId(clientId, userId)) {
+            return null;
+        }
+        return DtoConverter.toDtos(
+                lessonReadRepository.findClientRows(clientId),
+                lessonReadRepository.findClientLabelRows(clientId));
+    }
 
-        Label label = labelRepository.findById(labelId)
-                .orElseThrow(() -> new RuntimeException("Label not found"));
+    // Добавить метку к уроку (индивидуально). null - урока нет или он чужой (404)
+    public LessonDto addLabelToLesson(Integer lessonId, Integer labelId, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
+        Lesson lesson = lessonRepository.findByIdAndUserId(lessonId, userId).orElse(null);
+        if (lesson == null) {
+            return null;
+        }
 
         // Проверяем, что метка принадлежит пользователю
-        if (!label.getUser().getId().equals(userId)) {
-            throw new RuntimeException("Label does not belong to user");
+        if (labelCache.get(userId, labelId) == null) {
+            throw new RuntimeException("Label not found");
         }
 
-        if (!lesson.getLabels().contains(label)) {
-            lesson.getLabels().add(label);
+        if (lesson.getLabels().stream().noneMatch(label -> labelId.equals(label.getId()))) {
+            lesson.getLabels().add(labelRepository.getReferenceById(labelId));
             lessonRepository.save(lesson);
+            lessonLabelIndex.lessonChanged(userId, lesson.getId(), lesson.getDateTime(), labelIdsOf(lesson));
+            weekLessonCache.invalidateDate(userId, lesson.getDateTime());
+            dataVersionService.bump(userId);
+            return published(userId, ChangeEventDto.UPDATED, DtoConverter.toDto(lesson, labelDtos(userId)));
         }
 
-        return DtoConverter.toDto(lesson);
+        return DtoConverter.toDto(lesson, labelDtos(userId));
     }
 
-    // Удалить метку из урока
-    public LessonDto removeLabelFromLesson(Integer lessonId, Integer labelId) {
-        Lesson lesson = lessonRepository.findById(lessonId)
-                .orElseThrow(() -> new RuntimeException("Lesson not found"));
+    // Удалить метку из урока. null - урока нет или он чужой (404)
+    public LessonDto removeLabelFromLesson(Integer lessonId, Integer labelId, Integer userId) {
+        lessonConflictIndex.lockTutor(userId);
+        Lesson lesson = lessonRepository.findByIdAndUserId(lessonId, userId).orElse(null);
+        if (lesson == null) {
+            return null;
+        }
 
-        Label label = labelRepository.findById(labelId)
-                .orElseThrow(() -> new RuntimeException("Label not found"));
+        if (labelCache.get(userId, labelId) == null) {
+            throw new RuntimeException("Label not found");
+        }
 
-        lesson.getLabels().remove(label);
-        lessonRepository.save(lesson);
+        if (lesson.getLabels().removeIf(label -> labelId.equals(label.getId()))) {
+            lessonRepository.save(lesson);
+            lessonLabelIndex.lessonChanged(userId, lesson.getId(), lesson.getDateTime(), labelIdsOf(lesson));
+            weekLessonCache.invalidateDate(userId, lesson.getDateTime());
+            dataVersionService.bump(userId);
+            return published(userId, ChangeEventDto.UPDATED, DtoConverter.toDto(lesson, labelDtos(userId)));
+        }
 
-        return DtoConverter.toDto(lesson);
+        return DtoConverter.toDto(lesson, labelDtos(userId));
     }
 
-    // Получить уроки по метке
-    public List<LessonDto> getLessonsByLabel(Integer labelId, Integer userId) {
-        Label label = labelRepository.findById(labelId)
-                .orElseThrow(() -> new RuntimeException("Label not found"));
-
+    // Получить страницу уроков по метке в интервале [from, to] (границы необязательны) и их общее число
+    @Transactional(readOnly = true)
+    public LessonPageDto getLessonsByLabel(Integer labelId, LocalDateTime from, LocalDateTime to,
+                                           String cursor, int pageSize, Integer userId) {
         // Проверяем, что метка принадлежит пользователю
-        if (!label.getUser().getId().equals(userId)) {
-            throw new RuntimeException("Label does not belong to user");
+        if (labelCache.get(userId, labelId) == null) {
+            throw new RuntimeException("Label not found");
         }
 
-        return label.getLessons().stream()
-                .map(DtoConverter::toDto)
-                .collect(Collectors.toList());
+        LocalDateTime rangeFrom = from != null ? from : MIN_DATE_TIME;
+        LocalDateTime rangeTo = to != null ? to : MAX_DATE_TIME;
+        LessonCursor after = LessonCursor.decode(cursor);
+
+        // Берём на один урок больше, чтобы понять, есть ли следующая страница
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<LessonRow> rows = after == null
+                ? lessonReadRepository.findLabelPage(labelId, rangeFrom, rangeTo, limit)
+                : lessonReadRepository.findLabelPageAfter(labelId, rangeFrom, rangeTo,
+                        after.getDateTime(), after.getId(), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+        }
+
+        List<LessonDto> items = new ArrayList<>();
+        String nextCursor = null;
+        if (!rows.isEmpty()) {
+            List<Integer> lessonIds = rows.stream()
+                    .map(LessonRow::id)
+                    .collect(Collectors.toList());
+            items = DtoConverter.toDtos(rows, lessonReadRepository.findLabelRowsByIds(lessonIds));
+            if (hasMore) {
+                LessonRow last = rows.get(rows.size() - 1);
+                nextCursor = new LessonCursor(last.dateTime(), last.id()).encode();
+            }
+        }
+
+        long totalCount = lessonReadRepository.countLabelLessons(labelId, rangeFrom, rangeTo);
+        return new LessonPageDto(items, nextCursor, totalCount);
     }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package org.teacher_calendar.service;
+
+/**
+ * Пул проверки паролей переполнен: слишком много одновременных входов.
+ * AuthController отвечает на неё 429 Too Many Requests.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    public LoginThrottledException() {
+        super("Слишком много попыток входа, повторите позже");
+    }
+}
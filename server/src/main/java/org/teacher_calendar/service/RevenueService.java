@@ -0,0 +1,211 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.dto.DebtorDto;
+import org.teacher_calendar.dto.RevenueDto;
+import org.teacher_calendar.entity.Lesson;
+import org.teacher_calendar.repository.RevenueRepository;
+import org.teacher_calendar.repository.projection.RevenueContribution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Выручка репетитора по клиентам и месяцам из таблицы revenue_months и долги клиентов
+ * (clients.unpaid_lessons - неоплаченные уроки, ведутся теми же приращениями).
+ *
+ * Записи уроков (LessonService, LessonSeriesService) и смена стоимости занятия (ClientService)
+ * вызывают методы этого сервиса внутри своей транзакции: приращение откатывается вместе с уроком.
+ * Вызовы идут под lessonConflictIndex.lockTutor, так что флаги оплаты одного репетитора
+ * не считаются параллельно. Если агрегаты всё же разошлись с уроками - rebuild.
+ */
+@Service
+@Transactional
+public class RevenueService {
+
+    // Границы отчёта, когда клиент их не передал
+    private static final LocalDate MIN_MONTH = LocalDate.of(1900, 1, 1);
+    private static final LocalDate MAX_MONTH = LocalDate.of(9999, 12, 1);
+
+    private final RevenueRepository revenueRepository;
+    private final LessonConflictIndex lessonConflictIndex;
+    private final UserCache userCache;
+
+    @Autowired
+    public RevenueService(RevenueRepository revenueRepository, LessonConflictIndex lessonConflictIndex,
+                          UserCache userCache) {
+        this.revenueRepository = revenueRepository;
+        this.lessonConflictIndex = lessonConflictIndex;
+        this.userCache = userCache;
+    }
+
+    public void lessonAdded(Lesson lesson) {
+        add(RevenueContribution.of(lesson), 1);
+    }
+
+    public void lessonRemoved(Lesson lesson) {
+        add(RevenueContribution.of(lesson), -1);
+    }
+
+    // Урок изменился: before - снимок до изменения (RevenueContribution.of до сеттеров)
+    public void lessonChanged(RevenueContribution before, RevenueContribution after) {
+        if (Objects.equals(before.userId(), after.userId())
+                && Objects.equals(before.clientId(), after.clientId())
+                && Objects.equals(before.month(), after.month())) {
+            // Та же строка - одно приращение по разнице
+            int paidDelta = (after.paid() ? 1 : 0) - (before.paid() ? 1 : 0);
+            long minutesDelta = after.minutes() - before.minutes();
+            if (paidDelta != 0 || minutesDelta != 0) {
+                apply(after, 0, minutesDelta, paidDelta);
+            }
+            return;
+        }
+        add(before, -1);
+        add(after, 1);
+    }
+
+    // Пачка новых уроков: одно приращение на (клиент, месяц), а не на урок
+    public void lessonsAdded(Collection<RevenueContribution> contributions) {
+        Map<RowKey, long[]> deltas = new LinkedHashMap<>();
+        Map<RowKey, RevenueContribution> samples = new LinkedHashMap<>();
+        for (RevenueContribution contribution : contributions) {
+            if (contribution.month() == null) {
+                continue;
+            }
+            RowKey key = new RowKey(contribution.userId(), contribution.clientId(), contribution.month());
+            long[] delta = deltas.computeIfAbsent(key, k -> new long[3]);
+            delta[0]++;
+            delta[1] += contribution.minutes();
+            delta[2] += contribution.paid() ? 1 : 0;
+            samples.putIfAbsent(key, contribution);
+        }
+        deltas.forEach((key, delta) -> apply(samples.get(key), (int) delta[0], delta[1], (int) delta[2]));
+    }
+
+    // Вклад урока по id до изменения флагов одним UPDATE (см. LessonService.updateLessonStatus)
+    @Transactional(readOnly = true)
+    public RevenueContribution contributionOf(Integer lessonId, Integer userId) {
+        return revenueRepository.findContribution(lessonId, userId).orElse(null);
+    }
+
+    // Стоимость занятия клиента изменилась
+    public void clientRepriced(Integer clientId, Double lessonPrice) {
+        revenueRepository.reprice(clientId, priceOf(lessonPrice));
+    }
+
+    // Пересобрать агрегаты репетитора из lessons; возвращает число строк
+    public int rebuild(Integer userId) {
+        userCache.require(userId);
+        lessonConflictIndex.lockTutor(userId);
+        revenueRepository.deleteByUserId(userId);
+        revenueRepository.recountUnpaid(userId);
+        return revenueRepository.insertFromLessons(userId);
+    }
+
+    // Должники по убыванию суммы. Долг - прошедшие неоплаченные уроки: счётчик клиента
+    // за вычетом ещё не прошедших неоплаченных (их мало, они читаются по индексу).
+    // Время уроков в UTC, как и в ClientService.getClientsWithStats
+    @Transactional(readOnly = true)
+    public List<DebtorDto> getDebtors(Integer userId) {
+        userCache.require(userId);
+
+        Map<Integer, Long> upcoming = new HashMap<>();
+        for (Object[] row : revenueRepository.countUpcomingUnpaid(userId, LocalDateTime.now(ZoneOffset.UTC))) {
+            upcoming.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+
+        List<DebtorDto> debtors = new ArrayList<>();
+        for (Object[] row : revenueRepository.findUnpaidClients(userId)) {
+            Integer clientId = ((Number) row[0]).intValue();
+            Double lessonPrice = row[2] != null ? ((Number) row[2]).doubleValue() : null;
+            long unpaid = ((Number) row[3]).longValue() - upcoming.getOrDefault(clientId, 0L);
+            if (unpaid > 0) {
+                debtors.add(new DebtorDto(clientId, (String) row[1], lessonPrice, unpaid, unpaid * priceOf(lessonPrice)));
+            }
+        }
+        debtors.sort(Comparator.comparingDouble(DebtorDto::getAmount).reversed()
+                .thenComparing(Comparator.comparingLong(DebtorDto::getUnpaidCount).reversed())
+                .thenComparing(DebtorDto::getClientName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return debtors;
+    }
+
+    // По месяцам в [from, to] (берутся месяцы дат); без границ - всё время
+    @Transactional(readOnly = true)
+    public List<RevenueDto> getMonthlyRevenue(Integer userId, LocalDate from, LocalDate to) {
+        List<RevenueDto> result = new ArrayList<>();
+        for (Object[] row : revenueRepository.sumByMonth(userId, fromMonth(from), toMonth(to))) {
+            RevenueDto dto = totals(row, 1);
+            dto.setMonth(YearMonth.from(toLocalDate(row[0])).toString());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RevenueDto> getClientRevenue(Integer userId, LocalDate from, LocalDate to) {
+        List<RevenueDto> result = new ArrayList<>();
+        for (Object[] row : revenueRepository.sumByClient(userId, fromMonth(from), toMonth(to))) {
+            RevenueDto dto = totals(row, 2);
+            dto.setClientId(((Number) row[0]).intValue());
+            dto.setClientName((String) row[1]);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private void add(RevenueContribution contribution, int sign) {
+        if (contribution.month() == null) {
+            return;
+        }
+        apply(contribution, sign, (long) sign * contribution.minutes(), contribution.paid() ? sign : 0);
+    }
+
+    private void apply(RevenueContribution contribution, int lessons, long minutes, int paidLessons) {
+        revenueRepository.addDelta(contribution.userId(), contribution.clientId(), contribution.month(),
+                lessons, minutes, paidLessons, priceOf(contribution.lessonPrice()));
+        if (lessons != paidLessons) {
+            revenueRepository.addUnpaid(contribution.clientId(), lessons - paidLessons);
+        }
+    }
+
+    private static double priceOf(Double lessonPrice) {
+        return lessonPrice != null ? lessonPrice : 0;
+    }
+
+    // [.., lessons, minutes, earned, paid] начиная с offset
+    private static RevenueDto totals(Object[] row, int offset) {
+        RevenueDto dto = new RevenueDto();
+        dto.setLessonCount(((Number) row[offset]).longValue());
+        dto.setMinutes(((Number) row[offset + 1]).longValue());
+        dto.setEarned(((Number) row[offset + 2]).doubleValue());
+        dto.setPaid(((Number) row[offset + 3]).doubleValue());
+        return dto;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static LocalDate fromMonth(LocalDate from) {
+        return from != null ? from.withDayOfMonth(1) : MIN_MONTH;
+    }
+
+    private static LocalDate toMonth(LocalDate to) {
+        return to != null ? to.withDayOfMonth(1) : MAX_MONTH;
+    }
+
+    private record RowKey(Integer userId, Integer clientId, LocalDate month) {}
+}
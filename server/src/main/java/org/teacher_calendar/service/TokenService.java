@@ -0,0 +1,158 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Подписанные токены доступа без состояния на сервере: "payload.signature", где
+ * payload = base64url("userId:expiresAt"), signature = base64url(HMAC-SHA256(payload)).
+ *
+ * Ключи хранятся локально (auth.token.secret и auth.token.previous-secrets для ротации),
+ * поэтому любой экземпляр сервера проверяет токен сам, без общей сессии. Уже проверенные
+ * токены кэшируются, и повторный запрос с тем же токеном обходится без HMAC.
+ */
+@Component
+public class TokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Первый ключ подписывает, остальные (предыдущие) только проверяют
+    private final List<SecretKeySpec> keys = new ArrayList<>();
+    private final Duration ttl;
+    private final LruCache<String, VerifiedToken> verified;
+
+    public TokenService(@Value("${auth.token.secret:}") String secret,
+                        @Value("${auth.token.previous-secrets:}") List<String> previousSecrets,
+                        @Value("${auth.token.ttl:12h}") Duration ttl,
+                        @Value("${auth.token.cache-size:10000}") int cacheSize) {
+        if (secret == null || secret.isBlank()) {
+            // Без заданного ключа токены переживут только текущий запуск
+            logger.warn("auth.token.secret is not set, using a random key: tokens will not survive a restart");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            keys.add(new SecretKeySpec(random, ALGORITHM));
+        } else {
+            keys.add(key(secret));
+        }
+        for (String previous : previousSecrets) {
+            if (!previous.isBlank()) {
+                keys.add(key(previous));
+            }
+        }
+        this.ttl = ttl;
+        this.verified = new LruCache<>(cacheSize);
+    }
+
+    // Выпустить токен пользователю
+    public Token issue(Integer userId) {
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        String payload = ENCODER.encodeToString((userId + ":" + expiresAt).getBytes(StandardCharsets.US_ASCII));
+        String token = payload + "." + ENCODER.encodeToString(sign(keys.get(0), payload));
+        verified.put(token, new VerifiedToken(userId, expiresAt));
+        return new Token(token, expiresAt);
+    }
+
+    // id пользователя из действительного токена или null (подпись не сходится, истёк, мусор)
+    public Integer verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long now = Instant.now().getEpochSecond();
+
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached.userId();
+            }
+            verified.remove(token);
+            return null;
+        }
+
+        VerifiedToken parsed = parse(token);
+        if (parsed == null || parsed.expiresAt() <= now) {
+            return null;
+        }
+        verified.put(token, parsed);
+        return parsed.userId();
+    }
+
+    public Map<String, Object> stats() {
+        return verified.stats();
+    }
+
+    private VerifiedToken parse(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        byte[] signature;
+        String[] fields;
+        try {
+            signature = DECODER.decode(token.substring(dot + 1));
+            fields = new String(DECODER.decode(payload), StandardCharsets.US_ASCII).split(":");
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        boolean signed = false;
+        for (SecretKeySpec key : keys) {
+            // Сравнение за постоянное время, чтобы подпись нельзя было подбирать по задержке
+            if (MessageDigest.isEqual(sign(key, payload), signature)) {
+                signed = true;
+                break;
+            }
+        }
+        if (!signed || fields.length != 2) {
+            return null;
+        }
+
+        try {
+            return new VerifiedToken(Integer.valueOf(fields[0]), Long.parseLong(fields[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static byte[] sign(SecretKeySpec key, String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC is not available", e);
+        }
+    }
+
+    private static SecretKeySpec key(String secret) {
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 32) {
+            throw new IllegalStateException("auth.token secrets must be at least 32 bytes long");
+        }
+        return new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    public record Token(String value, long expiresAt) {}
+
+    private record VerifiedToken(Integer userId, long expiresAt) {}
+}
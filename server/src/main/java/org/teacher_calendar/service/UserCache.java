@@ -0,0 +1,80 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.entity.User;
+import org.teacher_calendar.repository.UserRepository;
+import org.teacher_calendar.util.AfterCommit;
+import org.teacher_calendar.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Кэш записей пользователей (без пароля) с ограниченным временем жизни.
+ *
+ * Почти каждый запрос начинается с проверки текущего репетитора и его часового пояса;
+ * без кэша это лишний SELECT из users на каждый вызов сервиса. Запись живёт не дольше
+ * users.cache.ttl, а изменения через UserService сбрасывают её сразу после коммита.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final LruCache<Integer, CachedUser> users;
+    private final long ttlNanos;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${users.cache.max-entries:1000}") int maxEntries,
+                     @Value("${users.cache.ttl:60s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.users = new LruCache<>(maxEntries);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // Пользователь или null, если такого нет
+    public CachedUser find(Integer userId) {
+        if (userId == null) {
+            return null;
+        }
+        CachedUser user = users.get(userId);
+        if (user != null && System.nanoTime() - user.loadedAt() < ttlNanos) {
+            return user;
+        }
+
+        user = userRepository.findById(userId)
+                .map(entity -> CachedUser.of(entity, System.nanoTime()))
+                .orElse(null);
+        if (user != null) {
+            users.put(userId, user);
+        } else {
+            users.remove(userId);
+        }
+        return user;
+    }
+
+    public CachedUser require(Integer userId) {
+        CachedUser user = find(userId);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        return user;
+    }
+
+    // Пользователь изменён или удалён: запись перечитается при следующем обращении
+    public void evict(Integer userId) {
+        AfterCommit.run(() -> users.remove(userId));
+    }
+
+    public Map<String, Object> stats() {
+        return users.stats();
+    }
+
+    public record CachedUser(Integer id, String username, String timezone, String telegramChatId, long loadedAt) {
+
+        static CachedUser of(User user, long loadedAt) {
+            return new CachedUser(user.getId(), user.getUsername(), user.getTimezone(),
+                    user.getTelegramChatId(), loadedAt);
+        }
+    }
+}
@@ -7,7 +7,6 @@ import org.teacher_calendar.util.DtoConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,12 +18,14 @@ public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashPool passwordHashPool;
+    private final UserCache userCache;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashPool passwordHashPool, UserCache userCache) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashPool = passwordHashPool;
+        this.userCache = userCache;
     }
 
     // Аутентификация пользователя
@@ -37,10 +38,8 @@ public class UserService {
                     return new RuntimeException("Пользователь не найден");
                 });
 
-        logger.debug("Stored password hash: {}", user.getPassword());
-        logger.debug("Provided password: {}", password);
-
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        // BCrypt - на отдельном пуле; при его переполнении бросается LoginThrottledException
+        if (!passwordHashPool.matches(password, user.getPassword())) {
             logger.warn("Password mismatch for user: {}", username);
             throw new RuntimeException("Неверный пароль");
         }
@@ -59,8 +58,7 @@ public class UserService {
         }
 
         User user = DtoConverter.toEntity(userDto);
-        String encodedPassword = passwordEncoder.encode(rawPassword);
-        logger.debug("Encoded password: {}", encodedPassword);
+        String encodedPassword = passwordHashPool.encode(rawPassword);
 
         user.setPassword(encodedPassword);
 
@@ -92,6 +90,7 @@ public class UserService {
         existingUser.setTelegramChatId(userDto.getTelegramChatId());
 
         User updatedUser = userRepository.save(existingUser);
+        userCache.evict(id);
         return DtoConverter.toDto(updatedUser);
     }
 
@@ -101,6 +100,7 @@ public class UserService {
         }
 
         userRepository.deleteById(id);
+        userCache.evict(id);
         return true;
     }
 }
\ No newline at end of file
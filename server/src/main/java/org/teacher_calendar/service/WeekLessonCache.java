@@ -0,0 +1,123 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.dto.LabelDto;
+import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.util.AfterCommit;
+import org.teacher_calendar.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш недельного представления календаря: (userId, weekStart) -> готовый список LessonDto.
+ *
+ * Инвалидация выполняется после коммита пишущей транзакции. Чтобы чтение, начавшееся
+ * до коммита, не положило в кэш устаревшие данные, у каждого репетитора есть счётчик
+ * поколений: читатель запоминает его до запроса к БД, и put отклоняется, если с тех пор
+ * была инвалидация.
+ */
+@Component
+public class WeekLessonCache {
+
+    private final LruCache<WeekKey, List<LessonDto>> cache;
+    private final Map<Integer, Long> generations = new ConcurrentHashMap<>();
+
+    public WeekLessonCache(@Value("${lessons.week-cache.max-entries:1000}") int maxEntries) {
+        this.cache = new LruCache<>(maxEntries);
+    }
+
+    // Поколение данных репетитора; передаётся обратно в put
+    public long stamp(Integer userId) {
+        return generations.getOrDefault(userId, 0L);
+    }
+
+    public List<LessonDto> get(Integer userId, LocalDate weekStart) {
+        return cache.get(new WeekKey(userId, weekStart));
+    }
+
+    public void put(Integer userId, LocalDate weekStart, List<LessonDto> lessons, long stamp) {
+        synchronized (cache) {
+            if (stamp(userId) == stamp) {
+                cache.put(new WeekKey(userId, weekStart), Collections.unmodifiableList(lessons));
+            }
+        }
+    }
+
+    // Урок в момент dateTime попадает во все недели, начинающиеся в [date - 6, date]
+    public void invalidateDate(Integer userId, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return;
+        }
+        LocalDate date = dateTime.toLocalDate();
+        AfterCommit.run(() -> {
+            synchronized (cache) {
+                bump(userId);
+                for (int i = 0; i < 7; i++) {
+                    cache.remove(new WeekKey(userId, date.minusDays(i)));
+                }
+            }
+        });
+    }
+
+    // Недели, в которые встроен этот клиент
+    public void invalidateClient(Integer userId, Integer clientId) {
+        AfterCommit.run(() -> {
+            synchronized (cache) {
+                bump(userId);
+                cache.removeIf((key, lessons) -> key.userId().equals(userId) && lessons.stream()
+                        .anyMatch(lesson -> lesson.getClient() != null
+                                && Objects.equals(lesson.getClient().getId(), clientId)));
+            }
+        });
+    }
+
+    // Недели, в которые встроена эта метка
+    public void invalidateLabel(Integer userId, Integer labelId) {
+        AfterCommit.run(() -> {
+            synchronized (cache) {
+                bump(userId);
+                cache.removeIf((key, lessons) -> key.userId().equals(userId) && lessons.stream()
+                        .anyMatch(lesson -> containsLabel(lesson, labelId)));
+            }
+        });
+    }
+
+    // Все недели репетитора
+    public void invalidateUser(Integer userId) {
+        AfterCommit.run(() -> {
+            synchronized (cache) {
+                bump(userId);
+                cache.removeIf((key, lessons) -> key.userId().equals(userId));
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    private void bump(Integer userId) {
+        generations.merge(userId, 1L, Long::sum);
+    }
+
+    private static boolean containsLabel(LessonDto lesson, Integer labelId) {
+        if (lesson.getLabels() == null) {
+            return false;
+        }
+        for (LabelDto label : lesson.getLabels()) {
+            if (Objects.equals(label.getId(), labelId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record WeekKey(Integer userId, LocalDate weekStart) {}
+}
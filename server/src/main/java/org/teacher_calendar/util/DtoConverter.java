@@ -2,15 +2,28 @@ package org.teacher_calendar.util;
 
 import org.teacher_calendar.dto.LabelDto;
 import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.ClientStatsDto;
 import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.dto.LessonSeriesDto;
 import org.teacher_calendar.dto.UserDto;
 import org.teacher_calendar.entity.Label;
 import org.teacher_calendar.entity.Client;
 import org.teacher_calendar.entity.Lesson;
+import org.teacher_calendar.entity.LessonSeries;
 import org.teacher_calendar.entity.User;
+import org.teacher_calendar.repository.projection.ClientStatsRow;
+import org.teacher_calendar.repository.projection.LessonLabelRow;
+import org.teacher_calendar.repository.projection.LessonRow;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class DtoConverter {
@@ -101,19 +114,19 @@ public class DtoConverter {
 
     // Lesson Entity -> DTO
     public static LessonDto toDto(Lesson entity) {
+        return toDto(entity, null);
+    }
+
+    // Lesson Entity -> DTO; labelLookup - поля меток по id (например, из словаря меток),
+    // null - из самих сущностей меток
+    public static LessonDto toDto(Lesson entity, Function<Integer, LabelDto> labelLookup) {
         if (entity == null) return null;
 
         LessonDto dto = new LessonDto();
         dto.setId(entity.getId());
 
-        // Форматируем даты в строки
-        if (entity.getDateTime() != null) {
-            dto.setDateTime(DateTimeParser.formatLocalDateTime(entity.getDateTime()));
-        }
-
-        if (entity.getEndTime() != null) {
-            dto.setEndTime(DateTimeParser.formatLocalDateTime(entity.getEndTime()));
-        }
+        dto.setDateTime(entity.getDateTime());
+        dto.setEndTime(entity.getEndTime());
 
         dto.setDurationMinutes(entity.getDurationMinutes());
         dto.setDescription(entity.getDescription());
@@ -133,21 +146,101 @@ public class DtoConverter {
             dto.setClient(toDto(entity.getClient()));
         }
 
+        if (entity.getSeries() != null) {
+            dto.setSeriesId(entity.getSeries().getId());
+        }
+        if (entity.getSeriesOccurrenceDate() != null) {
+            dto.setOccurrenceDate(entity.getSeriesOccurrenceDate().toString());
+        }
+
         // Конвертируем метки
         if (entity.getLabels() != null) {
             dto.setLabels(entity.getLabels().stream()
-                    .map(DtoConverter::toDto)
+                    .map(label -> labelLookup != null ? labelLookup.apply(label.getId()) : toDto(label))
+                    .filter(Objects::nonNull)
                     .collect(Collectors.toList()));
 
             // Также сохраняем ID меток для удобства
-            dto.setLabelIds(entity.getLabels().stream()
-                    .map(Label::getId)
+            dto.setLabelIds(dto.getLabels().stream()
+                    .map(LabelDto::getId)
                     .collect(Collectors.toList()));
         }
 
         return dto;
     }
 
+    // Клиент с агрегатами -> DTO; сумма долга - по текущей стоимости занятия клиента
+    public static ClientStatsDto toDto(ClientStatsRow row) {
+        ClientDto client = new ClientDto(row.clientId(), row.name(), row.phone(), row.timezone());
+        client.setCity(row.city());
+        client.setDescription(row.description());
+        client.setLessonPrice(row.lessonPrice());
+
+        ClientStatsDto dto = new ClientStatsDto(client);
+        dto.setLessonCount(row.lessonCount() != null ? row.lessonCount() : 0);
+        dto.setLastLessonAt(row.lastLessonAt());
+        dto.setNextLessonAt(row.nextLessonAt());
+        long unpaidCount = row.unpaidCount() != null ? row.unpaidCount() : 0;
+        dto.setUnpaidCount(unpaidCount);
+        dto.setUnpaidTotal(row.lessonPrice() != null ? unpaidCount * row.lessonPrice() : 0);
+        return dto;
+    }
+
+    // Проекции уроков -> DTO. Клиент общий для всех уроков одного клиента в ответе
+    public static List<LessonDto> toDtos(List<LessonRow> rows, List<LessonLabelRow> labelRows) {
+        Map<Integer, List<LabelDto>> labelsByLesson = new HashMap<>();
+        for (LessonLabelRow row : labelRows) {
+            LabelDto label = new LabelDto();
+            label.setId(row.labelId());
+            label.setName(row.name());
+            label.setColor(row.color());
+            label.setEmoji(row.emoji());
+            labelsByLesson.computeIfAbsent(row.lessonId(), id -> new ArrayList<>()).add(label);
+        }
+
+        Map<Integer, ClientDto> clients = new HashMap<>();
+        List<LessonDto> dtos = new ArrayList<>(rows.size());
+        for (LessonRow row : rows) {
+            ClientDto client = clients.computeIfAbsent(row.clientId(), id -> {
+                ClientDto dto = new ClientDto();
+                dto.setId(id);
+                dto.setName(row.clientName());
+                dto.setPhone(row.clientPhone());
+                dto.setTimezone(row.clientOwnTimezone());
+                dto.setCity(row.clientCity());
+                dto.setDescription(row.clientDescription());
+                dto.setLessonPrice(row.clientLessonPrice());
+                return dto;
+            });
+
+            LessonDto dto = new LessonDto();
+            dto.setId(row.id());
+            dto.setDateTime(row.dateTime());
+            dto.setEndTime(row.endTime());
+            dto.setDurationMinutes(row.durationMinutes());
+            dto.setDescription(row.description());
+            dto.setIsPaid(row.isPaid());
+            dto.setRequiresPreparation(row.requiresPreparation());
+            dto.setHomeworkSent(row.homeworkSent());
+            dto.setIsTrial(row.isTrial());
+            dto.setTutorTimezone(row.tutorTimezone());
+            dto.setClientTimezone(row.clientTimezone());
+            dto.setClient(client);
+            dto.setSeriesId(row.seriesId());
+            if (row.seriesOccurrenceDate() != null) {
+                dto.setOccurrenceDate(row.seriesOccurrenceDate().toString());
+            }
+
+            List<LabelDto> labels = labelsByLesson.getOrDefault(row.id(), new ArrayList<>());
+            dto.setLabels(labels);
+            dto.setLabelIds(labels.stream()
+                    .map(LabelDto::getId)
+                    .collect(Collectors.toList()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
     // Lesson DTO -> Entity (базовое преобразование без меток)
     public static Lesson toEntity(LessonDto dto, Client client) {
         if (dto == null) return null;
@@ -155,18 +248,12 @@ public class DtoConverter {
         Lesson entity = new Lesson();
         entity.setId(dto.getId());
 
-        // Парсим строки в LocalDateTime
-        if (dto.getDateTime() != null) {
-            entity.setDateTime(DateTimeParser.parseIsoToLocalDateTime(dto.getDateTime()));
-        }
-
-        if (dto.getEndTime() != null) {
-            entity.setEndTime(DateTimeParser.parseIsoToLocalDateTime(dto.getEndTime()));
-        }
+        entity.setDateTime(dto.getDateTime());
+        entity.setEndTime(dto.getEndTime());
 
         entity.setDurationMinutes(dto.getDurationMinutes());
         entity.setDescription(dto.getDescription());
-        entity.setIsPaid(dto.getIsPaid());
+        entity.setIsPaid(Boolean.TRUE.equals(dto.getIsPaid())); // is_paid NOT NULL: не передан - не оплачен
         entity.setRequiresPreparation(dto.getRequiresPreparation());
         entity.setHomeworkSent(dto.getHomeworkSent());
         entity.setIsTrial(dto.getIsTrial());
@@ -177,4 +264,64 @@ public class DtoConverter {
         // Метки устанавливаются отдельно в сервисе
         return entity;
     }
-}
\ No newline at end of file
+
+    // LessonSeries Entity -> DTO
+    public static LessonSeriesDto toDto(LessonSeries entity) {
+        if (entity == null) return null;
+
+        LessonSeriesDto dto = new LessonSeriesDto();
+        dto.setId(entity.getId());
+        dto.setStartDateTime(entity.getStartDateTime());
+        dto.setDurationMinutes(entity.getDurationMinutes());
+        dto.setIntervalDays(entity.getIntervalDays());
+        if (entity.getUntilDate() != null) {
+            dto.setUntilDate(entity.getUntilDate().toString());
+        }
+        dto.setDescription(entity.getDescription());
+        dto.setTutorTimezone(entity.getTutorTimezone());
+        dto.setClientTimezone(entity.getClientTimezone());
+        dto.setClient(toDto(entity.getClient()));
+        dto.setSkippedDates(entity.getSkippedDates().stream()
+                .sorted()
+                .map(LocalDate::toString)
+                .collect(Collectors.toList()));
+
+        return dto;
+    }
+
+    // LessonSeries DTO -> Entity (без исключений, они меняются отдельно)
+    public static LessonSeries toEntity(LessonSeriesDto dto, Client client) {
+        if (dto == null) return null;
+
+        LessonSeries entity = new LessonSeries();
+        entity.setId(dto.getId());
+        entity.setStartDateTime(dto.getStartDateTime());
+        entity.setDurationMinutes(dto.getDurationMinutes());
+        entity.setIntervalDays(dto.getIntervalDays());
+        if (dto.getUntilDate() != null && !dto.getUntilDate().isEmpty()) {
+            entity.setUntilDate(LocalDate.parse(dto.getUntilDate()));
+        }
+        entity.setDescription(dto.getDescription());
+        entity.setTutorTimezone(dto.getTutorTimezone());
+        entity.setClientTimezone(dto.getClientTimezone());
+        entity.setClient(client);
+
+        return entity;
+    }
+
+    // Вхождение серии, ещё не ставшее строкой Lesson (id == null)
+    public static LessonDto toOccurrenceDto(LessonSeries series, ClientDto client, LocalDateTime start) {
+        LessonDto dto = new LessonDto();
+        dto.setSeriesId(series.getId());
+        dto.setOccurrenceDate(start.toLocalDate().toString());
+        dto.setDateTime(start);
+        dto.setEndTime(start.plusMinutes(series.getDurationMinutes()));
+        dto.setDurationMinutes(series.getDurationMinutes());
+        dto.setDescription(series.getDescription());
+        dto.setTutorTimezone(series.getTutorTimezone());
+        dto.setClientTimezone(series.getClientTimezone());
+        dto.setClient(client);
+
+        return dto;
+    }
+}
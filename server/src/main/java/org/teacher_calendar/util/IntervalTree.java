@@ -0,0 +1,180 @@
+package org.teacher_calendar.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Дерево интервалов [start, end) с целочисленными идентификаторами.
+ * Сбалансированное AVL-дерево по ключу (start, id), в каждом узле хранится максимальный
+ * end поддерева, поэтому поиск пересечений стоит O(log n + k).
+ * Не потокобезопасно: синхронизация - на стороне вызывающего.
+ */
+public class IntervalTree {
+
+    private static final class Node {
+        long start;
+        long end;
+        int id;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(int id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+
+    // Текущий интервал каждого id - чтобы удалять и переносить по id
+    private final Map<Integer, long[]> intervals = new HashMap<>();
+
+    // Добавить или переместить интервал с данным id
+    public void put(int id, long start, long end) {
+        remove(id);
+        root = insert(root, new Node(id, start, end));
+        intervals.put(id, new long[]{start, end});
+    }
+
+    public boolean remove(int id) {
+        long[] interval = intervals.remove(id);
+        if (interval == null) {
+            return false;
+        }
+        root = delete(root, interval[0], id);
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return intervals.containsKey(id);
+    }
+
+    public int size() {
+        return intervals.size();
+    }
+
+    // Идентификаторы интервалов, пересекающихся с [start, end); стык "конец = начало" пересечением не считается
+    public List<Integer> overlapping(long start, long end) {
+        List<Integer> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    private static void collect(Node node, long start, long end, List<Integer> result) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, result);
+        if (node.start < end && start < node.end) {
+            result.add(node.id);
+        }
+        // Правое поддерево начинается не раньше node.start
+        if (node.start < end) {
+            collect(node.right, start, end, result);
+        }
+    }
+
+    private static int compare(long start, int id, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Integer.compare(id, node.id);
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Два потомка: переносим сюда минимальный узел правого поддерева
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.id = successor.id;
+            node.start = successor.start;
+            node.end = successor.end;
+            node.right = delete(node.right, successor.start, successor.id);
+        }
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -0,0 +1,53 @@
+package org.teacher_calendar.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсор для постраничного (keyset) чтения занятий.
+ * Позиция задаётся парой (dateTime, id) последнего отданного занятия,
+ * клиенту курсор передаётся непрозрачной base64url-строкой.
+ */
+public class LessonCursor {
+
+    private final LocalDateTime dateTime;
+    private final Integer id;
+
+    public LessonCursor(LocalDateTime dateTime, Integer id) {
+        this.dateTime = dateTime;
+        this.id = id;
+    }
+
+    public LocalDateTime getDateTime() { return dateTime; }
+    public Integer getId() { return id; }
+
+    public String encode() {
+        String raw = DateTimeParser.formatLocalDateTime(dateTime) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор, полученный от клиента. Пустой курсор означает первую страницу (null).
+     */
+    public static LessonCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            LocalDateTime dateTime = LocalDateTime.parse(raw.substring(0, separator));
+            Integer id = Integer.valueOf(raw.substring(separator + 1));
+            return new LessonCursor(dateTime, id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
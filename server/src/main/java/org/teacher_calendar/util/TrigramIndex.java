@@ -0,0 +1,254 @@
+package org.teacher_calendar.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Индекс триграмм для поиска подстрок: документ - набор нормализованных полей,
+ * каждое поле бьётся на слова, а слова - на триграммы с двумя пробелами в начале
+ * ("  иван" -> "  и", " ив", "ива", "ван"). Поэтому подстроку от 3 символов можно искать
+ * по её внутренним триграммам, а 1-2 символа - как начало слова.
+ *
+ * Документы лежат в плотных слотах, списки (postings) - массивы номеров слотов, так что
+ * на 50k документов индекс занимает единицы мегабайт, а обход кандидатов не ходит в HashMap.
+ * Списки упорядочены по первому полю документа (затем по id): вызывающий, ранжирующий
+ * по этому полю, может остановить обход, как только лучшие места заняты.
+ * Кандидаты берутся из самого короткого списка, списки остальных терминов отсекают лишних
+ * по маске слотов; это надмножество ответа - вызывающий проверяет кандидатов сам по полям документа.
+ * Не потокобезопасен: синхронизация - на стороне вызывающего.
+ */
+public class TrigramIndex {
+
+    // Кандидат поиска: id документа и его нормализованные поля; false - остановить обход
+    public interface CandidateConsumer {
+        boolean accept(int id, String[] fields);
+    }
+
+    private final Map<Integer, Integer> slots = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final IntList freeSlots = new IntList();
+    private int[] ids = new int[16];
+    private String[][] fields = new String[16][];
+    private int slotCount;
+
+    // Добавить или заменить документ; поля должны быть уже нормализованы (normalize), null - пустое поле
+    public void put(int id, String... documentFields) {
+        remove(id);
+
+        int slot;
+        if (freeSlots.size > 0) {
+            slot = freeSlots.values[--freeSlots.size];
+        } else {
+            if (slotCount == ids.length) {
+                ids = Arrays.copyOf(ids, slotCount * 2);
+                fields = Arrays.copyOf(fields, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        ids[slot] = id;
+        fields[slot] = documentFields;
+        slots.put(id, slot);
+
+        for (long trigram : trigramsOf(documentFields)) {
+            IntList list = postings.computeIfAbsent(trigram, key -> new IntList());
+            list.insert(-position(list, slot) - 1, slot);
+        }
+    }
+
+    public boolean remove(int id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return false;
+        }
+        for (long trigram : trigramsOf(fields[slot])) {
+            IntList list = postings.get(trigram);
+            int at = list != null ? position(list, slot) : -1;
+            if (at >= 0) {
+                list.removeAt(at);
+                if (list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+        fields[slot] = null;
+        freeSlots.add(slot);
+        return true;
+    }
+
+    public String[] fields(int id) {
+        Integer slot = slots.get(id);
+        return slot != null ? fields[slot] : null;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // Документы, которые могут содержать каждый из terms (нормализованных, без разделителей слов).
+    // Обход идёт по самому короткому списку в его порядке, остальные списки - фильтр по маске слотов
+    public void forEachCandidate(List<String> terms, CandidateConsumer consumer) {
+        IntList driver = null;
+        List<IntList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            IntList list = rarest(term);
+            if (list == null) {
+                return;
+            }
+            lists.add(list);
+            if (driver == null || list.size < driver.size) {
+                driver = list;
+            }
+        }
+        if (driver == null) {
+            return;
+        }
+
+        List<long[]> filters = new ArrayList<>(lists.size() - 1);
+        for (IntList list : lists) {
+            if (list != driver) {
+                filters.add(slotMask(list));
+            }
+        }
+
+        candidates:
+        for (int i = 0; i < driver.size; i++) {
+            int slot = driver.values[i];
+            for (long[] filter : filters) {
+                if ((filter[slot >>> 6] & (1L << slot)) == 0) {
+                    continue candidates;
+                }
+            }
+            if (!consumer.accept(ids[slot], fields[slot])) {
+                return;
+            }
+        }
+    }
+
+    // Нижний регистр, ё -> е: одинаково для полей и для запроса
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    // Самый короткий список среди триграмм термина; null - термин не встречается ни в одном документе
+    private IntList rarest(String term) {
+        if (term == null || term.isEmpty()) {
+            return null;
+        }
+        if (term.length() < 3) {
+            // Короткий термин ищется как начало слова: "  и" или " ив"
+            String padded = "  " + term;
+            return postings.get(key(padded, padded.length() - 3));
+        }
+
+        IntList best = null;
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            IntList list = postings.get(key(term, i));
+            if (list == null) {
+                return null;
+            }
+            if (best == null || list.size < best.size) {
+                best = list;
+            }
+        }
+        return best;
+    }
+
+    private long[] slotMask(IntList list) {
+        long[] mask = new long[(slotCount + 63) >>> 6];
+        for (int i = 0; i < list.size; i++) {
+            int slot = list.values[i];
+            mask[slot >>> 6] |= 1L << slot;
+        }
+        return mask;
+    }
+
+    // Двоичный поиск слота в списке по (первое поле, id); как Arrays.binarySearch - отрицательный, если нет
+    private int position(IntList list, int slot) {
+        int low = 0;
+        int high = list.size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareSlots(list.values[mid], slot);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int compareSlots(int a, int b) {
+        String first = fields[a][0];
+        String second = fields[b][0];
+        int cmp;
+        if (first == null || second == null) {
+            cmp = first == null ? (second == null ? 0 : 1) : -1;
+        } else {
+            cmp = first.compareTo(second);
+        }
+        return cmp != 0 ? cmp : Integer.compare(ids[a], ids[b]);
+    }
+
+    private static Set<Long> trigramsOf(String[] fields) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            int start = -1;
+            for (int i = 0; i <= field.length(); i++) {
+                boolean wordChar = i < field.length() && Character.isLetterOrDigit(field.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    String padded = "  " + field.substring(start, i);
+                    for (int j = 0; j + 3 <= padded.length(); j++) {
+                        trigrams.add(key(padded, j));
+                    }
+                    start = -1;
+                }
+            }
+        }
+        return trigrams;
+    }
+
+    private static long key(String s, int from) {
+        return ((long) s.charAt(from) << 32) | ((long) s.charAt(from + 1) << 16) | s.charAt(from + 2);
+    }
+
+    // Растущий массив int
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            insert(size, value);
+        }
+
+        void insert(int at, int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = value;
+            size++;
+        }
+
+        void removeAt(int at) {
+            System.arraycopy(values, at + 1, values, at, size - at - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+-- Схема базы данных (управляется явно, Hibernate только проверяет её: ddl-auto=validate)
+
+CREATE TABLE IF NOT EXISTS users (
+    id               INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username         VARCHAR(255) NOT NULL,
+    password         VARCHAR(255) NOT NULL,
+    timezone         VARCHAR(255) NOT NULL,
+    telegram_chat_id VARCHAR(255),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS clients (
+    id           INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    phone        VARCHAR(255) NOT NULL,
+    timezone     VARCHAR(255) NOT NULL,
+    city         VARCHAR(255),
+    description  VARCHAR(255),
+    lesson_price DOUBLE PRECISION,
+    -- Неоплаченные уроки клиента (с датой): ведёт RevenueService при записи уроков и смене оплаты
+    unpaid_lessons INTEGER NOT NULL DEFAULT 0,
+    user_id      INTEGER NOT NULL,
+    CONSTRAINT fk_clients_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS labels (
+    id      INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255) NOT NULL,
+    color   VARCHAR(255) NOT NULL,
+    emoji   VARCHAR(255),
+    user_id INTEGER NOT NULL,
+    CONSTRAINT fk_labels_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- Повторяющиеся занятия: правило повторения вместо строки на каждое вхождение
+CREATE TABLE IF NOT EXISTS lesson_series (
+    id               INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    start_date_time  TIMESTAMP NOT NULL,
+    duration_minutes INTEGER NOT NULL,
+    interval_days    INTEGER NOT NULL,
+    until_date       DATE,
+    description      VARCHAR(1000),
+    tutor_timezone   VARCHAR(255),
+    client_timezone  VARCHAR(255),
+    client_id        INTEGER NOT NULL,
+    user_id          INTEGER NOT NULL,
+    CONSTRAINT fk_lesson_series_client FOREIGN KEY (client_id) REFERENCES clients (id) ON DELETE CASCADE,
+    CONSTRAINT fk_lesson_series_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- Отменённые вхождения серии
+CREATE TABLE IF NOT EXISTS lesson_series_exceptions (
+    series_id       INTEGER NOT NULL,
+    occurrence_date DATE NOT NULL,
+    CONSTRAINT pk_lesson_series_exceptions PRIMARY KEY (series_id, occurrence_date),
+    CONSTRAINT fk_lesson_series_exceptions_series FOREIGN KEY (series_id) REFERENCES lesson_series (id) ON DELETE CASCADE
+);
+
+-- Серии, пересекающие неделю: WHERE user_id = ? AND start_date_time <= ?
+CREATE INDEX IF NOT EXISTS idx_lesson_series_user_start ON lesson_series (user_id, start_date_time);
+
+-- id уроков берутся из последовательности блоками по 50 (allocationSize в Lesson)
+CREATE SEQUENCE IF NOT EXISTS lessons_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS lessons (
+    id                   INTEGER PRIMARY KEY,
+    date_time            TIMESTAMP NOT NULL,
+    end_time             TIMESTAMP,
+    duration_minutes     INTEGER,
+    description          VARCHAR(1000),
+    is_paid              BOOLEAN NOT NULL DEFAULT FALSE,
+    requires_preparation BOOLEAN DEFAULT FALSE,
+    homework_sent        BOOLEAN DEFAULT FALSE,
+    is_trial             BOOLEAN DEFAULT FALSE,
+    tutor_timezone       VARCHAR(255),
+    client_timezone      VARCHAR(255),
+    client_id            INTEGER NOT NULL,
+    user_id              INTEGER NOT NULL,
+    series_id            INTEGER,
+    series_occurrence_date DATE,
+    CONSTRAINT fk_lessons_client FOREIGN KEY (client_id) REFERENCES clients (id) ON DELETE CASCADE,
+    CONSTRAINT fk_lessons_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_lessons_series FOREIGN KEY (series_id) REFERENCES lesson_series (id) ON DELETE SET NULL,
+    -- Одно вхождение серии материализуется не более одного раза; индекс обслуживает и поиск по серии
+    CONSTRAINT uk_lessons_series_occurrence UNIQUE (series_id, series_occurrence_date)
+);
+
+-- Связь занятий и меток. Первичный ключ (lesson_id, label_id) обслуживает чтение меток занятия,
+-- обратный индекс (label_id, lesson_id) - фильтр занятий по метке
+CREATE TABLE IF NOT EXISTS lesson_labels (
+    lesson_id INTEGER NOT NULL,
+    label_id  INTEGER NOT NULL,
+    CONSTRAINT pk_lesson_labels PRIMARY KEY (lesson_id, label_id),
+    CONSTRAINT fk_lesson_labels_lesson FOREIGN KEY (lesson_id) REFERENCES lessons (id) ON DELETE CASCADE,
+    CONSTRAINT fk_lesson_labels_label FOREIGN KEY (label_id) REFERENCES labels (id) ON DELETE CASCADE
+);
+
+-- Неделя календаря: WHERE user_id = ? AND date_time BETWEEN ? AND ? ORDER BY date_time
+CREATE INDEX IF NOT EXISTS idx_lessons_user_date ON lessons (user_id, date_time, id);
+
+-- Неоплаченные уроки репетитора: WHERE user_id = ? AND is_paid = FALSE AND date_time < ? (или >= ?),
+-- оплаченная история в диапазон индекса не попадает
+CREATE INDEX IF NOT EXISTS idx_lessons_user_paid_date ON lessons (user_id, is_paid, date_time);
+
+-- Занятия клиента (LessonReadRepository.findClientRows) и каскадное удаление клиента
+CREATE INDEX IF NOT EXISTS idx_lessons_client_date ON lessons (client_id, date_time);
+
+CREATE INDEX IF NOT EXISTS idx_lesson_labels_label ON lesson_labels (label_id, lesson_id);
+
+-- Список клиентов репетитора (findByUser), отсортированный по имени
+CREATE INDEX IF NOT EXISTS idx_clients_user_name ON clients (user_id, name);
+
+-- Метки репетитора и проверка уникальности имени (existsByNameAndUserId)
+CREATE INDEX IF NOT EXISTS idx_labels_user_name ON labels (user_id, name);
+
+-- Выручка по (репетитор, клиент, месяц). Поддерживается в той же транзакции, что и запись уроков
+-- (RevenueService), и пересобирается из lessons командой rebuild. earned/paid - число уроков
+-- на текущую стоимость занятия клиента, при смене стоимости пересчитываются строки клиента.
+-- Ключ (user_id, month_start, client_id) обслуживает отчёты за диапазон месяцев
+CREATE TABLE IF NOT EXISTS revenue_months (
+    user_id      INTEGER NOT NULL,
+    client_id    INTEGER NOT NULL,
+    month_start  DATE NOT NULL,
+    lesson_count INTEGER NOT NULL,
+    minutes      BIGINT NOT NULL,
+    paid_count   INTEGER NOT NULL,
+    earned       DOUBLE PRECISION NOT NULL,
+    paid         DOUBLE PRECISION NOT NULL,
+    CONSTRAINT pk_revenue_months PRIMARY KEY (user_id, month_start, client_id),
+    CONSTRAINT fk_revenue_months_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_revenue_months_client FOREIGN KEY (client_id) REFERENCES clients (id) ON DELETE CASCADE
+);
+
+-- Пересчёт при смене стоимости занятия и каскадное удаление клиента
+CREATE INDEX IF NOT EXISTS idx_revenue_months_client ON revenue_months (client_id);
@@ -0,0 +1,49 @@
+package org.teacher_calendar.service;
+
+import org.junit.jupiter.api.Test;
+import org.teacher_calendar.dto.ClientDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Короткие термины совпадают только с началом слова - одинаково при отборе кандидатов
+ * и при оценке, поэтому выдача не зависит от порядка терминов в запросе.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ClientSearchIndexTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private TestTutors testTutors;
+
+    @Test
+    void shortTermsMatchWordStartsOnly() {
+        Integer userId = testTutors.tutor();
+        testTutors.client(userId, "Иванов Антон");
+        testTutors.client(userId, "Иванов Степан");
+        testTutors.client(userId, "Антонова Ирина");
+        testTutors.client(userId, "Романов Иван");
+
+        assertEquals(List.of("Иванов Антон"), names(userId, "ив ан"));
+        assertEquals(names(userId, "ив ан"), names(userId, "ан ив"));
+        assertEquals(List.of("Антонова Ирина", "Иванов Антон"), names(userId, "ан"));
+        // От 3 символов - и внутри слова
+        assertEquals(List.of("Иванов Степан"), names(userId, "пан"));
+    }
+
+    private List<String> names(Integer userId, String query) {
+        return clientService.searchClients(query, 20, userId).stream()
+                .map(ClientDto::getName)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,149 @@
+package org.teacher_calendar.service;
+
+import org.junit.jupiter.api.Test;
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.dto.LessonSeriesDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Параллельные записи одного репетитора (уроки, новые серии, перенос серий) в одни и те же
+ * две недели: каждая запись либо проходит, либо получает LessonConflictException,
+ * а в итоговом календаре ни один урок и ни одно вхождение серии не пересекаются.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LessonConflictStressTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 60;
+    private static final LocalDate FIRST_WEEK = LocalDate.of(2031, 3, 3);
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private LessonSeriesService lessonSeriesService;
+
+    @Autowired
+    private TestTutors testTutors;
+
+    @Test
+    void concurrentWritesNeverLeaveOverlaps() throws Exception {
+        Integer userId = testTutors.tutor();
+        ClientDto client = testTutors.client(userId, "Клиент");
+
+        List<Integer> seriesIds = new CopyOnWriteArrayList<>();
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    try {
+                        int dice = random.nextInt(10);
+                        if (dice < 7) {
+                            lessonService.createLesson(lesson(random, client), userId);
+                        } else if (dice < 9 || seriesIds.isEmpty()) {
+                            seriesIds.add(lessonSeriesService.createSeries(series(random, client), userId).getId());
+                        } else {
+                            Integer id = seriesIds.get(random.nextInt(seriesIds.size()));
+                            lessonSeriesService.updateSeries(id, series(random, client), userId);
+                        }
+                        created.incrementAndGet();
+                    } catch (LessonConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertTrue(created.get() > 0, "no write succeeded");
+        assertTrue(rejected.get() > 0, "no write conflicted - the test does not exercise the checks");
+
+        List<LessonDto> calendar = new ArrayList<>();
+        calendar.addAll(lessonService.getLessonsForWeek(FIRST_WEEK, userId));
+        calendar.addAll(lessonService.getLessonsForWeek(FIRST_WEEK.plusWeeks(1), userId));
+        calendar.sort((a, b) -> a.getDateTime().compareTo(b.getDateTime()));
+
+        // По возрастанию начала: каждое следующее начинается не раньше конца всех предыдущих
+        LessonDto latest = null;
+        LocalDateTime latestEnd = LocalDateTime.MIN;
+        for (LessonDto lesson : calendar) {
+            if (lesson.getDateTime().isBefore(latestEnd)) {
+                fail("Overlap: " + describe(latest) + " and " + describe(lesson));
+            }
+            LocalDateTime end = endOf(lesson);
+            if (end.isAfter(latestEnd)) {
+                latest = lesson;
+                latestEnd = end;
+            }
+        }
+    }
+
+    // Урок на получасовой сетке с 8:00 до 20:00 в пределах двух недель
+    private static LessonDto lesson(Random random, ClientDto client) {
+        LessonDto lesson = new LessonDto(null, slot(random), client, null, false);
+        lesson.setDurationMinutes(30 * (1 + random.nextInt(3)));
+        return lesson;
+    }
+
+    // Еженедельная серия из двух вхождений в тех же двух неделях
+    private static LessonSeriesDto series(Random random, ClientDto client) {
+        LocalDateTime start = slot(random);
+        if (!start.toLocalDate().isBefore(FIRST_WEEK.plusWeeks(1))) {
+            start = start.minusWeeks(1);
+        }
+        LessonSeriesDto series = new LessonSeriesDto();
+        series.setStartDateTime(start);
+        series.setDurationMinutes(30 * (1 + random.nextInt(3)));
+        series.setIntervalDays(7);
+        series.setUntilDate(FIRST_WEEK.plusWeeks(2).minusDays(1).toString());
+        series.setClient(client);
+        return series;
+    }
+
+    private static LocalDateTime slot(Random random) {
+        return FIRST_WEEK.atTime(8, 0)
+                .plusDays(random.nextInt(14))
+                .plusMinutes(30L * random.nextInt(24));
+    }
+
+    private static LocalDateTime endOf(LessonDto lesson) {
+        return LessonConflictIndex.effectiveEnd(lesson.getDateTime(), lesson.getEndTime(), lesson.getDurationMinutes());
+    }
+
+    private static String describe(LessonDto lesson) {
+        return (lesson.getId() != null ? "lesson " + lesson.getId() : "series " + lesson.getSeriesId())
+                + " " + lesson.getDateTime() + " - " + endOf(lesson);
+    }
+}
@@ -0,0 +1,75 @@
+package org.teacher_calendar.service;
+
+import org.junit.jupiter.api.Test;
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.LessonDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Фильтр по меткам отдаёт уроки из [from, to] по времени и не больше limit,
+ * в том числе после переноса и удаления уроков, уже попавших в индекс.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LessonLabelIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2033, 9, 5, 0, 0);
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private LessonLabelIndex lessonLabelIndex;
+
+    @Autowired
+    private TestTutors testTutors;
+
+    @Test
+    void findScansRangeInTimeOrderUpToLimit() {
+        Integer userId = testTutors.tutor();
+        ClientDto client = testTutors.client(userId, "Клиент");
+        Integer oge = testTutors.label(userId, "ОГЭ").getId();
+        Integer ege = testTutors.label(userId, "ЕГЭ").getId();
+
+        // Создаём не по порядку времени: 14, 9, 18, 11, 16, 8 часов; у урока в 11 нет ОГЭ
+        Integer at14 = lesson(userId, client, 14, oge);
+        Integer at9 = lesson(userId, client, 9, oge, ege);
+        Integer at18 = lesson(userId, client, 18, oge);
+        Integer at11 = lesson(userId, client, 11, ege);
+        Integer at16 = lesson(userId, client, 16, oge, ege);
+        Integer at8 = lesson(userId, client, 8, oge);
+
+        assertEquals(List.of(at9, at14, at16, at18), find(userId, List.of(oge), 9, 20, 10));
+        assertEquals(List.of(at9, at14), find(userId, List.of(oge), 9, 20, 2));
+        assertEquals(List.of(at9, at11, at16), find(userId, List.of(ege), 0, 23, 10));
+        assertEquals(List.of(), find(userId, List.of(oge), 20, 9, 10));
+
+        // Индекс уже загружен: перенос урока с 8 на 15 и удаление урока в 14 меняют порядок
+        LessonDto moved = new LessonDto(null, DAY.withHour(15), client, null, false);
+        moved.setDurationMinutes(60);
+        moved.setLabelIds(List.of(oge));
+        lessonService.updateLesson(at8, moved, userId);
+        lessonService.deleteLesson(at14, userId);
+
+        assertEquals(List.of(at9, at8, at16), find(userId, List.of(oge), 9, 17, 10));
+        assertEquals(List.of(at9, at8), find(userId, List.of(oge), 0, 23, 2));
+    }
+
+    private Integer lesson(Integer userId, ClientDto client, int hour, Integer... labelIds) {
+        LessonDto lesson = new LessonDto(null, DAY.withHour(hour), client, null, false);
+        lesson.setDurationMinutes(60);
+        lesson.setLabelIds(List.of(labelIds));
+        return lessonService.createLesson(lesson, userId).getId();
+    }
+
+    private List<Integer> find(Integer userId, List<Integer> allOf, int fromHour, int toHour, int limit) {
+        return lessonLabelIndex.find(userId, allOf, List.of(), DAY.withHour(fromHour), DAY.withHour(toHour), limit);
+    }
+}
@@ -0,0 +1,80 @@
+package org.teacher_calendar.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.LabelDto;
+import org.teacher_calendar.dto.LessonDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Неделя календаря читается фиксированным числом запросов, сколько бы уроков, клиентов
+ * и меток в ней ни было (без N+1 по клиентам и меткам).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LessonWeekQueryTest {
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private TestTutors testTutors;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void weekReadStatementCountDoesNotGrowWithLessons() {
+        Integer userId = testTutors.tutor();
+        List<ClientDto> clients = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            clients.add(testTutors.client(userId, "Клиент " + i));
+        }
+        List<Integer> labelIds = List.of(
+                testTutors.label(userId, "ОГЭ").getId(),
+                testTutors.label(userId, "ЕГЭ").getId(),
+                testTutors.label(userId, "Олимпиада").getId());
+
+        LocalDate smallWeek = LocalDate.of(2030, 1, 7);
+        LocalDate largeWeek = LocalDate.of(2030, 1, 14);
+        lessonService.createLessons(lessonsFor(smallWeek, 10, clients, labelIds), userId);
+        lessonService.createLessons(lessonsFor(largeWeek, 500, clients, labelIds), userId);
+
+        long small = statementsFor(() -> assertEquals(10, lessonService.getLessonsForWeek(smallWeek, userId).size()));
+        long large = statementsFor(() -> assertEquals(500, lessonService.getLessonsForWeek(largeWeek, userId).size()));
+
+        assertEquals(small, large, "week read issued " + small + " statements for 10 lessons and " + large + " for 500");
+    }
+
+    // count уроков по 15 минут подряд с понедельника 00:00 (до 96 в день); клиенты и метки по кругу
+    private static List<LessonDto> lessonsFor(LocalDate weekStart, int count,
+                                              List<ClientDto> clients, List<Integer> labelIds) {
+        List<LessonDto> lessons = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LessonDto lesson = new LessonDto(null, weekStart.atStartOfDay().plusMinutes(15L * i),
+                    clients.get(i % clients.size()), null, false);
+            lesson.setDurationMinutes(15);
+            lesson.setLabelIds(List.of(labelIds.get(i % labelIds.size()), labelIds.get((i + 1) % labelIds.size())));
+            lessons.add(lesson);
+        }
+        return lessons;
+    }
+
+    private long statementsFor(Runnable read) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
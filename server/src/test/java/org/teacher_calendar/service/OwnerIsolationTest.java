@@ -0,0 +1,108 @@
+package org.teacher_calendar.service;
+
+import org.junit.jupiter.api.Test;
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.LabelDto;
+import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.dto.LessonSeriesDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Чужие уроки, серии, клиенты и метки для репетитора не существуют: чтение, изменение и удаление
+ * по чужому id возвращают "не найдено" и ничего не меняют.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OwnerIsolationTest {
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private LessonSeriesService lessonSeriesService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private LabelService labelService;
+
+    @Autowired
+    private TestTutors testTutors;
+
+    @Test
+    void otherTutorCannotReadChangeOrDeleteRows() {
+        Integer owner = testTutors.tutor();
+        Integer stranger = testTutors.tutor();
+        ClientDto client = testTutors.client(owner, "Клиент");
+        LabelDto label = testTutors.label(owner, "ОГЭ");
+        LessonDto lessonDto = new LessonDto(null, LocalDateTime.of(2032, 5, 3, 10, 0), client, "Алгебра", false);
+        lessonDto.setLabelIds(List.of(label.getId()));
+        LessonDto lesson = lessonService.createLesson(lessonDto, owner);
+        LessonSeriesDto series = lessonSeriesService.createSeries(series(client, "Геометрия"), owner);
+        LocalDate occurrence = LocalDate.of(2032, 5, 17);
+
+        LessonDto change = new LessonDto(null, LocalDateTime.of(2032, 5, 4, 10, 0), null, "Чужое", true);
+        assertNull(lessonService.updateLesson(lesson.getId(), change, stranger));
+        assertNull(lessonService.updateLessonStatus(lesson.getId(), true, null, null, null, stranger));
+        assertNull(lessonService.updateLessonLabels(lesson.getId(), List.of(), stranger));
+        assertNull(lessonService.removeLabelFromLesson(lesson.getId(), label.getId(), stranger));
+        assertNull(lessonService.getLessonsByClient(client.getId(), stranger));
+        assertFalse(lessonService.deleteLesson(lesson.getId(), stranger));
+
+        assertNull(lessonSeriesService.updateSeries(series.getId(), series(client, "Чужая"), stranger));
+        assertNull(lessonSeriesService.materializeOccurrence(series.getId(), occurrence, stranger));
+        assertFalse(lessonSeriesService.skipOccurrence(series.getId(), occurrence, stranger));
+        assertFalse(lessonSeriesService.deleteSeries(series.getId(), stranger));
+        // Серию на чужого клиента не создать
+        assertThrows(RuntimeException.class, () -> lessonSeriesService.createSeries(series(client, "Чужая"), stranger));
+        assertEquals(List.of(), lessonSeriesService.getAllSeries(stranger));
+
+        assertNull(clientService.getClientById(client.getId(), stranger));
+        assertNull(clientService.updateClient(client.getId(), new ClientDto(null, "Чужой", null, null), stranger));
+        assertFalse(clientService.deleteClient(client.getId(), stranger));
+
+        assertNull(labelService.getLabelById(label.getId(), stranger));
+        assertNull(labelService.updateLabel(label.getId(), new LabelDto(null, "Чужая", "#000000", null), stranger));
+        assertFalse(labelService.deleteLabel(label.getId(), stranger));
+
+        // У владельца всё на месте и не изменилось
+        List<LessonDto> lessons = lessonService.getLessonsByClient(client.getId(), owner);
+        assertEquals(1, lessons.size());
+        assertEquals("Алгебра", lessons.get(0).getDescription());
+        assertEquals(LocalDateTime.of(2032, 5, 3, 10, 0), lessons.get(0).getDateTime());
+        assertEquals(List.of(label.getId()), lessons.get(0).getLabelIds());
+        List<LessonSeriesDto> ownSeries = lessonSeriesService.getAllSeries(owner);
+        assertEquals(1, ownSeries.size());
+        assertEquals("Геометрия", ownSeries.get(0).getDescription());
+        assertEquals(LocalDateTime.of(2032, 5, 17, 16, 0),
+                lessonSeriesService.materializeOccurrence(series.getId(), occurrence, owner).getDateTime());
+        assertEquals("Клиент", clientService.getClientById(client.getId(), owner).getName());
+        assertNotNull(labelService.getLabelById(label.getId(), owner));
+        assertEquals("ОГЭ", labelService.getLabelById(label.getId(), owner).getName());
+    }
+
+    // Еженедельно по понедельникам в 16:00, четыре вхождения
+    private static LessonSeriesDto series(ClientDto client, String description) {
+        LessonSeriesDto series = new LessonSeriesDto();
+        series.setStartDateTime(LocalDateTime.of(2032, 5, 10, 16, 0));
+        series.setDurationMinutes(60);
+        series.setIntervalDays(7);
+        series.setUntilDate("2032-05-31");
+        series.setDescription(description);
+        series.setClient(client);
+        return series;
+    }
+}
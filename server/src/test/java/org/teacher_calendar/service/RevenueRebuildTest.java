@@ -0,0 +1,150 @@
+package org.teacher_calendar.service;
+
+import org.junit.jupiter.api.Test;
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.DebtorDto;
+import org.teacher_calendar.dto.LessonDto;
+import org.teacher_calendar.dto.LessonSeriesDto;
+import org.teacher_calendar.dto.RevenueDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Приращения выручки (revenue_months) и долгов (clients.unpaid_lessons) после любых записей
+ * уроков и смены цены дают то же, что полная пересборка revenueService.rebuild.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RevenueRebuildTest {
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private LessonSeriesService lessonSeriesService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private RevenueService revenueService;
+
+    @Autowired
+    private TestTutors testTutors;
+
+    @Test
+    void incrementalAggregatesMatchRebuild() {
+        Integer userId = testTutors.tutor();
+        ClientDto anna = testTutors.client(userId, "Анна");
+        ClientDto boris = testTutors.client(userId, "Борис");
+        ClientDto vera = testTutors.client(userId, "Вера");
+
+        // Разовые уроки, один - в будущем: он неоплачен, но ещё не долг
+        Integer moved = lesson(userId, anna, LocalDateTime.of(2021, 3, 1, 10, 0), 60, false);
+        Integer paidThenUnpaid = lesson(userId, anna, LocalDateTime.of(2021, 3, 2, 10, 0), 90, true);
+        Integer unpaidThenPaid = lesson(userId, boris, LocalDateTime.of(2021, 3, 3, 10, 0), 60, false);
+        lesson(userId, boris, LocalDateTime.of(2040, 3, 5, 10, 0), 60, false);
+
+        // Пачка: три клиента, два месяца, оплата через раз
+        List<LessonDto> bulk = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ClientDto client = i % 3 == 0 ? anna : i % 3 == 1 ? boris : vera;
+            LessonDto dto = new LessonDto(null, LocalDateTime.of(2021, 3 + i % 2, 10 + i, 12, 0), client, null, i % 2 == 0);
+            dto.setDurationMinutes(45 + 15 * (i % 3));
+            bulk.add(dto);
+        }
+        List<LessonDto> created = lessonService.createLessons(bulk, userId);
+
+        // Перенос в другой месяц к другому клиенту с другой длительностью
+        LessonDto move = new LessonDto(null, LocalDateTime.of(2021, 4, 15, 9, 0), boris, null, false);
+        move.setDurationMinutes(45);
+        lessonService.updateLesson(moved, move, userId);
+
+        // Оплата и её отмена, повторная оплата ничего не меняет
+        lessonService.updateLessonStatus(paidThenUnpaid, false, null, null, null, userId);
+        lessonService.updateLessonStatus(unpaidThenPaid, true, null, null, null, userId);
+        lessonService.updateLessonStatus(unpaidThenPaid, true, null, null, null, userId);
+
+        lessonService.deleteLesson(created.get(1).getId(), userId);
+        lessonService.deleteLesson(created.get(4).getId(), userId);
+
+        // Серия: материализованные вхождения попадают в выручку, отменённое - уходит
+        LessonSeriesDto series = new LessonSeriesDto();
+        series.setStartDateTime(LocalDateTime.of(2021, 5, 3, 16, 0));
+        series.setDurationMinutes(60);
+        series.setIntervalDays(7);
+        series.setUntilDate("2021-05-31");
+        series.setClient(vera);
+        Integer seriesId = lessonSeriesService.createSeries(series, userId).getId();
+        Integer materialized = lessonSeriesService.materializeOccurrence(seriesId, LocalDate.of(2021, 5, 3), userId).getId();
+        lessonService.updateLessonStatus(materialized, true, null, null, null, userId);
+        lessonSeriesService.materializeOccurrence(seriesId, LocalDate.of(2021, 5, 10), userId);
+        lessonSeriesService.materializeOccurrence(seriesId, LocalDate.of(2021, 5, 17), userId);
+        lessonSeriesService.skipOccurrence(seriesId, LocalDate.of(2021, 5, 17), userId);
+
+        // Новая цена, цена снята, и урок после смены цены
+        reprice(userId, anna, 1500.0);
+        reprice(userId, vera, null);
+        lesson(userId, anna, LocalDateTime.of(2021, 4, 20, 18, 0), 60, false);
+
+        List<String> monthly = monthly(userId);
+        List<String> byClient = byClient(userId);
+        List<String> debtors = debtors(userId);
+        assertFalse(debtors.isEmpty());
+
+        revenueService.rebuild(userId);
+
+        assertEquals(monthly, monthly(userId));
+        assertEquals(byClient, byClient(userId));
+        assertEquals(debtors, debtors(userId));
+    }
+
+    private Integer lesson(Integer userId, ClientDto client, LocalDateTime start, int minutes, boolean paid) {
+        LessonDto dto = new LessonDto(null, start, client, null, paid);
+        dto.setDurationMinutes(minutes);
+        return lessonService.createLesson(dto, userId).getId();
+    }
+
+    private void reprice(Integer userId, ClientDto client, Double lessonPrice) {
+        ClientDto dto = new ClientDto(null, client.getName(), client.getPhone(), client.getTimezone());
+        dto.setLessonPrice(lessonPrice);
+        clientService.updateClient(client.getId(), dto, userId);
+    }
+
+    private List<String> monthly(Integer userId) {
+        return revenueService.getMonthlyRevenue(userId, null, null).stream()
+                .map(r -> r.getMonth() + " " + totals(r))
+                .collect(Collectors.toList());
+    }
+
+    private List<String> byClient(Integer userId) {
+        return revenueService.getClientRevenue(userId, null, null).stream()
+                .map(r -> r.getClientId() + " " + r.getClientName() + " " + totals(r))
+                .collect(Collectors.toList());
+    }
+
+    private List<String> debtors(Integer userId) {
+        return revenueService.getDebtors(userId).stream()
+                .map(this::debtor)
+                .collect(Collectors.toList());
+    }
+
+    private String totals(RevenueDto r) {
+        return r.getLessonCount() + " " + r.getMinutes() + " " + r.getEarned() + " " + r.getPaid();
+    }
+
+    private String debtor(DebtorDto d) {
+        return d.getClientId() + " " + d.getClientName() + " " + d.getLessonPrice() + " "
+                + d.getUnpaidCount() + " " + d.getAmount();
+    }
+}
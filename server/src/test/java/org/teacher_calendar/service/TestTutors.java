@@ -0,0 +1,43 @@
+package org.teacher_calendar.service;
+
+import org.teacher_calendar.dto.ClientDto;
+import org.teacher_calendar.dto.LabelDto;
+import org.teacher_calendar.dto.UserDto;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Данные для тестов: у каждого теста свой репетитор, поэтому тесты не видят данных друг друга
+ * в общей H2.
+ */
+@Component
+public class TestTutors {
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    private final UserService userService;
+    private final ClientService clientService;
+    private final LabelService labelService;
+
+    public TestTutors(UserService userService, ClientService clientService, LabelService labelService) {
+        this.userService = userService;
+        this.clientService = clientService;
+        this.labelService = labelService;
+    }
+
+    public Integer tutor() {
+        UserDto user = new UserDto(null, "test-tutor-" + sequence.incrementAndGet(), "Europe/Moscow");
+        return userService.createUser(user, "password123").getId();
+    }
+
+    public ClientDto client(Integer userId, String name) {
+        ClientDto client = new ClientDto(null, name, "+7900" + sequence.incrementAndGet(), "Europe/Moscow");
+        client.setLessonPrice(1000.0);
+        return clientService.createClient(client, userId);
+    }
+
+    public LabelDto label(Integer userId, String name) {
+        return labelService.createLabel(new LabelDto(null, name, "#336699", null), userId);
+    }
+}
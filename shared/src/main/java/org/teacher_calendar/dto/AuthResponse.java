@@ -0,0 +1,26 @@
+package org.teacher_calendar.dto;
+
+public class AuthResponse {
+    private String token; // Подписанный токен для заголовка Authorization: Bearer
+    private Long expiresAt; // Момент истечения токена, epoch-секунды
+    private UserDto user;
+
+    // Конструкторы
+    public AuthResponse() {}
+
+    public AuthResponse(String token, Long expiresAt, UserDto user) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+        this.user = user;
+    }
+
+    // Геттеры и сеттеры
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+
+    public Long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Long expiresAt) { this.expiresAt = expiresAt; }
+
+    public UserDto getUser() { return user; }
+    public void setUser(UserDto user) { this.user = user; }
+}
@@ -0,0 +1,45 @@
+package org.teacher_calendar.dto;
+
+public class ChangeEventDto {
+    public static final String LESSON = "lesson";
+    public static final String CLIENT = "client";
+    public static final String LABEL = "label";
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    // Изменилось слишком много (или подписчик отстал): перечитать данные целиком
+    public static final String RESYNC = "resync";
+
+    private String entity; // lesson / client / label, null - для resync
+    private String action;
+    private Integer id;
+    private Object data; // LessonDto / ClientDto / LabelDto после изменения, null - для deleted и resync
+
+    // Конструкторы
+    public ChangeEventDto() {}
+
+    public ChangeEventDto(String entity, String action, Integer id, Object data) {
+        this.entity = entity;
+        this.action = action;
+        this.id = id;
+        this.data = data;
+    }
+
+    public static ChangeEventDto resync() {
+        return new ChangeEventDto(null, RESYNC, null, null);
+    }
+
+    // Геттеры и сеттеры
+    public String getEntity() { return entity; }
+    public void setEntity(String entity) { this.entity = entity; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public Object getData() { return data; }
+    public void setData(Object data) { this.data = data; }
+}
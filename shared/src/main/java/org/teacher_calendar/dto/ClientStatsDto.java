@@ -0,0 +1,47 @@
+package org.teacher_calendar.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.teacher_calendar.dto.json.IsoLocalDateTimeDeserializer;
+import org.teacher_calendar.dto.json.IsoLocalDateTimeSerializer;
+
+import java.time.LocalDateTime;
+
+public class ClientStatsDto {
+    private ClientDto client;
+    private long lessonCount;
+    @JsonSerialize(using = IsoLocalDateTimeSerializer.class)
+    @JsonDeserialize(using = IsoLocalDateTimeDeserializer.class)
+    private LocalDateTime lastLessonAt; // Последний прошедший урок, null - не было
+    @JsonSerialize(using = IsoLocalDateTimeSerializer.class)
+    @JsonDeserialize(using = IsoLocalDateTimeDeserializer.class)
+    private LocalDateTime nextLessonAt; // Ближайший предстоящий урок, null - не запланирован
+    private long unpaidCount; // Прошедшие неоплаченные уроки
+    private double unpaidTotal; // unpaidCount * стоимость занятия клиента
+
+    // Конструкторы
+    public ClientStatsDto() {}
+
+    public ClientStatsDto(ClientDto client) {
+        this.client = client;
+    }
+
+    // Геттеры и сеттеры
+    public ClientDto getClient() { return client; }
+    public void setClient(ClientDto client) { this.client = client; }
+
+    public long getLessonCount() { return lessonCount; }
+    public void setLessonCount(long lessonCount) { this.lessonCount = lessonCount; }
+
+    public LocalDateTime getLastLessonAt() { return lastLessonAt; }
+    public void setLastLessonAt(LocalDateTime lastLessonAt) { this.lastLessonAt = lastLessonAt; }
+
+    public LocalDateTime getNextLessonAt() { return nextLessonAt; }
+    public void setNextLessonAt(LocalDateTime nextLessonAt) { this.nextLessonAt = nextLessonAt; }
+
+    public long getUnpaidCount() { return unpaidCount; }
+    public void setUnpaidCount(long unpaidCount) { this.unpaidCount = unpaidCount; }
+
+    public double getUnpaidTotal() { return unpaidTotal; }
+    public void setUnpaidTotal(double unpaidTotal) { this.unpaidTotal = unpaidTotal; }
+}
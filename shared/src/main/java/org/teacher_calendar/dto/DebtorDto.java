@@ -0,0 +1,36 @@
+package org.teacher_calendar.dto;
+
+public class DebtorDto {
+    private Integer clientId;
+    private String clientName;
+    private Double lessonPrice;
+    private long unpaidCount; // Прошедшие неоплаченные уроки
+    private double amount; // unpaidCount * стоимость занятия
+
+    // Конструкторы
+    public DebtorDto() {}
+
+    public DebtorDto(Integer clientId, String clientName, Double lessonPrice, long unpaidCount, double amount) {
+        this.clientId = clientId;
+        this.clientName = clientName;
+        this.lessonPrice = lessonPrice;
+        this.unpaidCount = unpaidCount;
+        this.amount = amount;
+    }
+
+    // Геттеры и сеттеры
+    public Integer getClientId() { return clientId; }
+    public void setClientId(Integer clientId) { this.clientId = clientId; }
+
+    public String getClientName() { return clientName; }
+    public void setClientName(String clientName) { this.clientName = clientName; }
+
+    public Double getLessonPrice() { return lessonPrice; }
+    public void setLessonPrice(Double lessonPrice) { this.lessonPrice = lessonPrice; }
+
+    public long getUnpaidCount() { return unpaidCount; }
+    public void setUnpaidCount(long unpaidCount) { this.unpaidCount = unpaidCount; }
+
+    public double getAmount() { return amount; }
+    public void setAmount(double amount) { this.amount = amount; }
+}
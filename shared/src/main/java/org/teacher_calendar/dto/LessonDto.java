@@ -1,12 +1,23 @@
 package org.teacher_calendar.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.teacher_calendar.dto.json.IsoLocalDateTimeDeserializer;
+import org.teacher_calendar.dto.json.IsoLocalDateTimeSerializer;
+
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class LessonDto {
     private Integer id;
-    private String dateTime; // ISO строка, например: "2024-01-20T10:00:00"
-    private String endTime; // ISO строка
+    // В JSON - ISO строка, например: "2024-01-20T10:00:00"
+    @JsonSerialize(using = IsoLocalDateTimeSerializer.class)
+    @JsonDeserialize(using = IsoLocalDateTimeDeserializer.class)
+    private LocalDateTime dateTime;
+    @JsonSerialize(using = IsoLocalDateTimeSerializer.class)
+    @JsonDeserialize(using = IsoLocalDateTimeDeserializer.class)
+    private LocalDateTime endTime;
     private Integer durationMinutes = 60; // По умолчанию 60 минут
     private String description;
     private Boolean isPaid = false;
@@ -18,11 +29,13 @@ public class LessonDto {
     private ClientDto client;
     private String tutorTimezone;
     private String clientTimezone;
+    private Integer seriesId; // Серия, к которой относится урок (null - разовый урок)
+    private String occurrenceDate; // Дата вхождения серии "yyyy-MM-dd"; у невыделенного вхождения id == null
 
     // Конструкторы
     public LessonDto() {}
 
-    public LessonDto(Integer id, String dateTime, ClientDto client, String description, Boolean isPaid) {
+    public LessonDto(Integer id, LocalDateTime dateTime, ClientDto client, String description, Boolean isPaid) {
         this.id = id;
         this.dateTime = dateTime;
         this.client = client;
@@ -30,21 +43,21 @@ public class LessonDto {
         this.isPaid = isPaid;
     }
 
-    // Геттеры и сеттеры для dateTime (String)
-    public String getDateTime() {
+    // Геттеры и сеттеры для dateTime
+    public LocalDateTime getDateTime() {
         return dateTime;
     }
 
-    public void setDateTime(String dateTime) {
+    public void setDateTime(LocalDateTime dateTime) {
         this.dateTime = dateTime;
     }
 
-    // Геттеры и сеттеры для endTime (String)
-    public String getEndTime() {
+    // Геттеры и сеттеры для endTime
+    public LocalDateTime getEndTime() {
         return endTime;
     }
 
-    public void setEndTime(String endTime) {
+    public void setEndTime(LocalDateTime endTime) {
         this.endTime = endTime;
     }
 
@@ -145,4 +158,20 @@ public class LessonDto {
     public void setClientTimezone(String clientTimezone) {
         this.clientTimezone = clientTimezone;
     }
+
+    public Integer getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(Integer seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public String getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    public void setOccurrenceDate(String occurrenceDate) {
+        this.occurrenceDate = occurrenceDate;
+    }
 }
\ No newline at end of file
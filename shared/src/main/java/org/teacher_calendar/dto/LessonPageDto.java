@@ -0,0 +1,34 @@
+package org.teacher_calendar.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LessonPageDto {
+    private List<LessonDto> items = new ArrayList<>();
+    private String nextCursor; // null, если это последняя страница
+    private Long totalCount; // Всего уроков по запросу (если считается), null - не считался
+
+    // Конструкторы
+    public LessonPageDto() {}
+
+    public LessonPageDto(List<LessonDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public LessonPageDto(List<LessonDto> items, String nextCursor, Long totalCount) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.totalCount = totalCount;
+    }
+
+    // Геттеры и сеттеры
+    public List<LessonDto> getItems() { return items; }
+    public void setItems(List<LessonDto> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public Long getTotalCount() { return totalCount; }
+    public void setTotalCount(Long totalCount) { this.totalCount = totalCount; }
+}
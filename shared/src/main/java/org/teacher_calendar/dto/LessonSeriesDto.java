@@ -0,0 +1,60 @@
+package org.teacher_calendar.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.teacher_calendar.dto.json.IsoLocalDateTimeDeserializer;
+import org.teacher_calendar.dto.json.IsoLocalDateTimeSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LessonSeriesDto {
+    private Integer id;
+    // Первое вхождение, в JSON - ISO строка, например: "2024-01-20T10:00:00"
+    @JsonSerialize(using = IsoLocalDateTimeSerializer.class)
+    @JsonDeserialize(using = IsoLocalDateTimeDeserializer.class)
+    private LocalDateTime startDateTime;
+    private Integer durationMinutes = 60;
+    private Integer intervalDays = 7; // 7 - еженедельно, 14 - раз в две недели
+    private String untilDate; // "2024-05-31" включительно, null - без окончания
+    private String description;
+    private ClientDto client;
+    private String tutorTimezone;
+    private String clientTimezone;
+    private List<String> skippedDates = new ArrayList<>(); // Отменённые вхождения, "yyyy-MM-dd"
+
+    // Конструкторы
+    public LessonSeriesDto() {}
+
+    // Геттеры и сеттеры
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public LocalDateTime getStartDateTime() { return startDateTime; }
+    public void setStartDateTime(LocalDateTime startDateTime) { this.startDateTime = startDateTime; }
+
+    public Integer getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(Integer durationMinutes) { this.durationMinutes = durationMinutes; }
+
+    public Integer getIntervalDays() { return intervalDays; }
+    public void setIntervalDays(Integer intervalDays) { this.intervalDays = intervalDays; }
+
+    public String getUntilDate() { return untilDate; }
+    public void setUntilDate(String untilDate) { this.untilDate = untilDate; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public ClientDto getClient() { return client; }
+    public void setClient(ClientDto client) { this.client = client; }
+
+    public String getTutorTimezone() { return tutorTimezone; }
+    public void setTutorTimezone(String tutorTimezone) { this.tutorTimezone = tutorTimezone; }
+
+    public String getClientTimezone() { return clientTimezone; }
+    public void setClientTimezone(String clientTimezone) { this.clientTimezone = clientTimezone; }
+
+    public List<String> getSkippedDates() { return skippedDates; }
+    public void setSkippedDates(List<String> skippedDates) { this.skippedDates = skippedDates; }
+}
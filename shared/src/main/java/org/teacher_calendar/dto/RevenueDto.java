@@ -0,0 +1,36 @@
+package org.teacher_calendar.dto;
+
+public class RevenueDto {
+    private String month; // "2025-03" в отчёте по месяцам, null - в отчёте по клиентам
+    private Integer clientId; // Только в отчёте по клиентам
+    private String clientName;
+    private long lessonCount;
+    private long minutes;
+    private double earned; // Уроки по стоимости занятия клиента
+    private double paid; // Из них оплачено
+
+    // Конструкторы
+    public RevenueDto() {}
+
+    // Геттеры и сеттеры
+    public String getMonth() { return month; }
+    public void setMonth(String month) { this.month = month; }
+
+    public Integer getClientId() { return clientId; }
+    public void setClientId(Integer clientId) { this.clientId = clientId; }
+
+    public String getClientName() { return clientName; }
+    public void setClientName(String clientName) { this.clientName = clientName; }
+
+    public long getLessonCount() { return lessonCount; }
+    public void setLessonCount(long lessonCount) { this.lessonCount = lessonCount; }
+
+    public long getMinutes() { return minutes; }
+    public void setMinutes(long minutes) { this.minutes = minutes; }
+
+    public double getEarned() { return earned; }
+    public void setEarned(double earned) { this.earned = earned; }
+
+    public double getPaid() { return paid; }
+    public void setPaid(double paid) { this.paid = paid; }
+}
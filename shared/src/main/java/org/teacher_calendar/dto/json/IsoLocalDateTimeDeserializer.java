@@ -0,0 +1,36 @@
+package org.teacher_calendar.dto.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import org.teacher_calendar.util.DateTimeParser;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Читает LocalDateTime из ISO-строки через DateTimeParser: принимает и локальное время,
+ * и toISOString() фронтенда ("...T17:30:00.782Z"), смещение отбрасывается.
+ * Пустая строка - null, как и раньше.
+ */
+public class IsoLocalDateTimeDeserializer extends StdScalarDeserializer<LocalDateTime> {
+
+    public IsoLocalDateTimeDeserializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+            return (LocalDateTime) context.handleUnexpectedToken(LocalDateTime.class, parser);
+        }
+
+        String text = parser.getText();
+        try {
+            return DateTimeParser.parseIsoToLocalDateTime(text);
+        } catch (IllegalArgumentException e) {
+            return (LocalDateTime) context.handleWeirdStringValue(LocalDateTime.class, text, e.getMessage());
+        }
+    }
+}
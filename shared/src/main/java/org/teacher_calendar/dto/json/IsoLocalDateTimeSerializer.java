@@ -0,0 +1,72 @@
+package org.teacher_calendar.dto.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Пишет LocalDateTime строкой в формате ISO_LOCAL_DATE_TIME ("2025-12-07T17:30:00",
+ * дробная часть - только если она ненулевая, без хвостовых нулей) - тот же формат,
+ * что фронтенд получал раньше. Символы собираются в буфер и уходят в генератор
+ * без промежуточной строки и DateTimeFormatter.
+ */
+public class IsoLocalDateTimeSerializer extends StdSerializer<LocalDateTime> {
+
+    // "yyyy-MM-ddTHH:mm:ss.nnnnnnnnn"
+    private static final int MAX_LENGTH = 29;
+
+    public IsoLocalDateTimeSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            // Годы вне четырёх цифр печатаются со знаком - оставляем это форматтеру
+            gen.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+
+        char[] buffer = new char[MAX_LENGTH];
+        write4(buffer, 0, year);
+        buffer[4] = '-';
+        write2(buffer, 5, value.getMonthValue());
+        buffer[7] = '-';
+        write2(buffer, 8, value.getDayOfMonth());
+        buffer[10] = 'T';
+        write2(buffer, 11, value.getHour());
+        buffer[13] = ':';
+        write2(buffer, 14, value.getMinute());
+        buffer[16] = ':';
+        write2(buffer, 17, value.getSecond());
+        int length = 19;
+
+        int nano = value.getNano();
+        if (nano != 0) {
+            buffer[length++] = '.';
+            int divisor = 100_000_000;
+            while (nano != 0) {
+                buffer[length++] = (char) ('0' + nano / divisor);
+                nano %= divisor;
+                divisor /= 10;
+            }
+        }
+
+        gen.writeString(buffer, 0, length);
+    }
+
+    private static void write2(char[] buffer, int pos, int value) {
+        buffer[pos] = (char) ('0' + value / 10);
+        buffer[pos + 1] = (char) ('0' + value % 10);
+    }
+
+    private static void write4(char[] buffer, int pos, int value) {
+        write2(buffer, pos, value / 100);
+        write2(buffer, pos + 2, value % 100);
+    }
+}
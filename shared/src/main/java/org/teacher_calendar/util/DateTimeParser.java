@@ -0,0 +1,185 @@
+package org.teacher_calendar.util;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+public class DateTimeParser {
+
+    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+
+    // Позиции полей в "yyyy-MM-ddTHH:mm:ss.SSS..."
+    private static final int DATE_TIME_LENGTH = 16;   // "yyyy-MM-ddTHH:mm"
+    private static final int SECONDS_END = 19;        // ":ss"
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int MAX_OFFSET_HOURS = 18;
+
+    private static final int[] FRACTION_SCALE = {
+            1, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+
+    /**
+     * Парсит строку ISO в LocalDateTime.
+     * Поддерживает форматы:
+     * - "2025-12-07T17:30:00" (без зоны)
+     * - "2025-12-07T17:30:00.782Z" (с миллисекундами и UTC)
+     * - "2025-12-07T17:30:00+03:00" (с часовым поясом)
+     * Смещение не применяется: возвращается локальное время в том виде, как оно записано.
+     */
+    public static LocalDateTime parseIsoToLocalDateTime(String isoString) {
+        if (isoString == null || isoString.isEmpty()) {
+            return null;
+        }
+
+        // Быстрый путь для фиксированной раскладки yyyy-MM-ddTHH:mm[:ss[.S...]][Z|±HH:mm]:
+        // без исключений, регулярок и промежуточных строк
+        LocalDateTime parsed = parseFixedLayout(isoString);
+        if (parsed != null) {
+            return parsed;
+        }
+        return parseWithFormatter(isoString);
+    }
+
+    /**
+     * Форматирует LocalDateTime в строку без зоны
+     */
+    public static String formatLocalDateTime(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        return dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    // Разбор по позициям. null - строка не в фиксированной раскладке или поле вне диапазона,
+    // такие строки (и ошибки для них) остаются на DateTimeFormatter
+    static LocalDateTime parseFixedLayout(String s) {
+        int length = s.length();
+        if (length < DATE_TIME_LENGTH
+                || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T' || s.charAt(13) != ':') {
+            return null;
+        }
+
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return null;
+        }
+        if (day > daysInMonth(year, month)) {
+            return null;
+        }
+
+        int pos = DATE_TIME_LENGTH;
+        int second = 0;
+        int nano = 0;
+        if (pos < length && s.charAt(pos) == ':') {
+            if (length < SECONDS_END) {
+                return null;
+            }
+            second = digits(s, pos + 1, 2);
+            if (second < 0 || second > 59) {
+                return null;
+            }
+            pos = SECONDS_END;
+
+            if (pos < length && s.charAt(pos) == '.') {
+                int start = ++pos;
+                while (pos < length && isDigit(s.charAt(pos))) {
+                    if (pos - start == MAX_FRACTION_DIGITS) {
+                        return null;
+                    }
+                    nano = nano * 10 + (s.charAt(pos) - '0');
+                    pos++;
+                }
+                int fractionDigits = pos - start;
+                if (fractionDigits == 0) {
+                    return null;
+                }
+                nano *= FRACTION_SCALE[fractionDigits];
+            }
+        }
+
+        // Смещение проверяем, но не применяем (как и раньше, берётся локальное время)
+        if (pos < length) {
+            char sign = s.charAt(pos);
+            if (sign == 'Z') {
+                pos++;
+            } else if (sign == '+' || sign == '-') {
+                if (length - pos != 6 || s.charAt(pos + 3) != ':') {
+                    return null;
+                }
+                int offsetHours = digits(s, pos + 1, 2);
+                int offsetMinutes = digits(s, pos + 4, 2);
+                if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59
+                        || offsetHours > MAX_OFFSET_HOURS || (offsetHours == MAX_OFFSET_HOURS && offsetMinutes > 0)) {
+                    return null;
+                }
+                pos += 6;
+            } else {
+                return null;
+            }
+        }
+        if (pos != length) {
+            return null;
+        }
+
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    // Разбор через DateTimeFormatter для всего, что не прошло быстрый путь
+    static LocalDateTime parseWithFormatter(String isoString) {
+        try {
+            // Пробуем распарсить как OffsetDateTime (с Z или смещением)
+            if (isoString.endsWith("Z") || isoString.contains("+") ||
+                    (isoString.contains("-") && isoString.lastIndexOf('-') > 10)) {
+                return OffsetDateTime.parse(isoString, ISO_FORMATTER)
+                        .toLocalDateTime();
+            } else {
+                // Пробуем как LocalDateTime
+                return LocalDateTime.parse(isoString, ISO_FORMATTER);
+            }
+        } catch (DateTimeParseException e) {
+            // Убираем миллисекунды если они есть
+            if (isoString.contains(".")) {
+                String withoutMillis = isoString.substring(0, isoString.indexOf('.'));
+                return parseIsoToLocalDateTime(withoutMillis);
+            }
+            throw new IllegalArgumentException("Invalid date format: " + isoString, e);
+        }
+    }
+
+    // Число из count цифр начиная с from; -1, если встретилась не цифра
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
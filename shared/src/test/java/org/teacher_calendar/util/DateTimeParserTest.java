@@ -0,0 +1,125 @@
+package org.teacher_calendar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Быстрый путь parseFixedLayout против DateTimeFormatter на случайных строках:
+ * корректных ISO, с полями вне диапазона и испорченных вставкой, удалением и заменой символов.
+ * Если быстрый путь что-то вернул, DateTimeFormatter обязан вернуть то же самое;
+ * отказ быстрого пути безопасен - строка уходит на DateTimeFormatter.
+ */
+class DateTimeParserTest {
+
+    private static final int SAMPLES = 200_000;
+    private static final String NOISE = "0123456789-:T.Z+ x";
+
+    @Test
+    void fixedLayoutAgreesWithFormatter() {
+        Random random = new Random(20251207);
+        int fastPath = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            String input = random.nextInt(3) == 0 ? valid(random) : mutate(random, valid(random));
+
+            LocalDateTime fixed = DateTimeParser.parseFixedLayout(input);
+            if (fixed == null) {
+                continue;
+            }
+            fastPath++;
+            LocalDateTime expected;
+            try {
+                expected = DateTimeParser.parseWithFormatter(input);
+            } catch (IllegalArgumentException e) {
+                fail("fast path accepted \"" + input + "\" as " + fixed + ", formatter rejects it");
+                return;
+            }
+            assertEquals(expected, fixed, "input \"" + input + "\"");
+        }
+        // Иначе свойство проверялось бы на пустом множестве
+        assertTrue(fastPath > SAMPLES / 3, "fast path accepted only " + fastPath + " of " + SAMPLES);
+    }
+
+    @Test
+    void canonicalStringsTakeFastPath() {
+        Random random = new Random(17);
+        for (int i = 0; i < SAMPLES / 10; i++) {
+            String input = valid(random);
+            LocalDateTime fixed = DateTimeParser.parseFixedLayout(input);
+            assertNotNull(fixed, "fast path rejected \"" + input + "\"");
+            assertEquals(DateTimeParser.parseWithFormatter(input), fixed, "input \"" + input + "\"");
+        }
+    }
+
+    // yyyy-MM-ddTHH:mm[:ss[.S{1,9}]][Z|±HH:mm] со всеми полями в допустимых пределах
+    private static String valid(Random random) {
+        int year = random.nextInt(4) == 0 ? random.nextInt(10_000) : 1970 + random.nextInt(130);
+        int month = 1 + random.nextInt(12);
+        int day = 1 + random.nextInt(LocalDateTime.of(year, month, 1, 0, 0).toLocalDate().lengthOfMonth());
+        StringBuilder s = new StringBuilder(String.format("%04d-%02d-%02dT%02d:%02d",
+                year, month, day, random.nextInt(24), random.nextInt(60)));
+        if (random.nextInt(5) > 0) {
+            s.append(String.format(":%02d", random.nextInt(60)));
+            if (random.nextBoolean()) {
+                s.append('.');
+                int digits = 1 + random.nextInt(9);
+                for (int i = 0; i < digits; i++) {
+                    s.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+        }
+        switch (random.nextInt(3)) {
+            case 0:
+                s.append('Z');
+                break;
+            case 1:
+                int hours = random.nextInt(19);
+                s.append(String.format("%c%02d:%02d", random.nextBoolean() ? '+' : '-',
+                        hours, hours == 18 ? 0 : random.nextInt(60)));
+                break;
+            default:
+                break;
+        }
+        return s.toString();
+    }
+
+    // Одна-три порчи: замена, вставка, удаление символа, обрезка или число вне диапазона
+    private static String mutate(Random random, String input) {
+        StringBuilder s = new StringBuilder(input);
+        int mutations = 1 + random.nextInt(3);
+        for (int m = 0; m < mutations && s.length() > 0; m++) {
+            int at = random.nextInt(s.length());
+            switch (random.nextInt(5)) {
+                case 0:
+                    s.setCharAt(at, NOISE.charAt(random.nextInt(NOISE.length())));
+                    break;
+                case 1:
+                    s.insert(at, NOISE.charAt(random.nextInt(NOISE.length())));
+                    break;
+                case 2:
+                    s.deleteCharAt(at);
+                    break;
+                case 3:
+                    s.setLength(at);
+                    break;
+                default:
+                    // Двузначное поле (месяц, день, часы, минуты, секунды, смещение) за границей
+                    int field = random.nextInt(6);
+                    int[] positions = {5, 8, 11, 14, 17, 20};
+                    int pos = positions[field];
+                    if (pos + 2 <= s.length()) {
+                        String[] bad = {"13", "00", "32", "24", "60", "99", "19"};
+                        s.replace(pos, pos + 2, bad[random.nextInt(bad.length)]);
+                    }
+                    break;
+            }
+        }
+        return s.toString();
+    }
+}